@@ -0,0 +1,345 @@
+import utils.TreePrinter;
+
+import java.util.Iterator;
+import java.util.Random;
+
+// An AVL tree with the same behaviour as AVLTreeRecursive, but insert and
+// remove walk down the tree once, record the path they took in an array and
+// then walk back up it. Nothing is rebuilt on the way up: parents are only
+// relinked when a rotation changes the root of a subtree, and the walk stops
+// at the first node whose height did not change, since nothing above it can
+// be affected. On average that is after a constant number of levels.
+public class AVLTreeIterative <T extends Comparable<T>> implements Iterable<T> {
+
+    // The height of an AVL tree with n nodes is below 1.44*log2(n + 2), so
+    // any tree of at most Integer.MAX_VALUE nodes fits in this many levels
+    private static final int MAX_DEPTH = 48;
+
+    class Node implements TreePrinter.PrintableNode {
+
+        // 'bf' is short for balance factor
+        int bf;
+
+        // The value/data contained within the node
+        T value;
+
+        // The height of this node int the tree
+        int height;
+
+        // The left and the right children of this node
+        Node left, right;
+
+        public Node(T value) {
+            this.value = value;
+        }
+
+        @Override
+        public Node getLeft(){
+            return left;
+        }
+
+        @Override
+        public Node getRight(){
+            return right;
+        }
+
+        @Override
+        public String getText() {
+            return String.valueOf(value);
+        }
+    }
+
+    // The root Node of the AVL tree
+    Node root;
+
+    private int nodeCount = 0;
+
+    // The nodes on the path from the root to the node being inserted or
+    // removed, and whether the path continued into their left child
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Node[] path = (Node[]) new AVLTreeIterative.Node[MAX_DEPTH];
+    private final boolean[] wentLeft = new boolean[MAX_DEPTH];
+
+    // The height of the rooted tree is the number of edges between the tree's
+    // root node and its furthest leaf. This means that a tree containing a single
+    // node has a height of 0
+    public int height() {
+        if (root == null) return 0;
+        return root.height;
+    }
+
+    // Returns the number of nodes in the tree.
+    public int size() {
+        return nodeCount;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void display() {
+        System.out.println(TreePrinter.getTreeDisplay(root));
+    }
+
+    // Return true/false depending on whether a value exists in the tree
+    public boolean contains(T value) {
+        Node node = root;
+        while (node != null) {
+            int cmp = value.compareTo(node.value);
+            if (cmp == 0) return true;
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    // Insert/Add value to the AVL tree. The value must not be null, O(log(n))
+    public boolean insert(T value) {
+        if (value == null) return false;
+
+        // Walk down to the empty spot, a duplicate ends the search right away
+        int depth = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = value.compareTo(node.value);
+            if (cmp == 0) return false;
+            path[depth] = node;
+            wentLeft[depth++] = cmp < 0;
+            node = cmp < 0 ? node.left : node.right;
+        }
+
+        Node leaf = new Node(value);
+        if (depth == 0) root = leaf;
+        else if (wentLeft[depth - 1]) path[depth - 1].left = leaf;
+        else path[depth - 1].right = leaf;
+
+        nodeCount++;
+        retrace(depth);
+        return true;
+    }
+
+    // Remove a value from this binary tree if it exists, O(log(n))
+    public boolean remove(T elem) {
+        if (elem == null) return false;
+
+        int depth = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = elem.compareTo(node.value);
+            if (cmp == 0) break;
+            path[depth] = node;
+            wentLeft[depth++] = cmp < 0;
+            node = cmp < 0 ? node.left : node.right;
+        }
+        if (node == null) return false;
+
+        // With two children the value of the successor is moved into the node
+        // and the successor is removed instead. Like AVLTreeRecursive the
+        // successor is taken from the taller subtree.
+        if (node.left != null && node.right != null) {
+            Node target = node;
+            path[depth] = node;
+            if (node.left.height > node.right.height) {
+                wentLeft[depth++] = true;
+                node = node.left;
+                while (node.right != null) {
+                    path[depth] = node;
+                    wentLeft[depth++] = false;
+                    node = node.right;
+                }
+            } else {
+                wentLeft[depth++] = false;
+                node = node.right;
+                while (node.left != null) {
+                    path[depth] = node;
+                    wentLeft[depth++] = true;
+                    node = node.left;
+                }
+            }
+            target.value = node.value;
+        }
+
+        // 'node' now has at most one child which takes its place
+        Node child = node.left != null ? node.left : node.right;
+        if (depth == 0) root = child;
+        else if (wentLeft[depth - 1]) path[depth - 1].left = child;
+        else path[depth - 1].right = child;
+
+        // Clear the value so it can be collected even if the node is still
+        // referenced from a stale entry of 'path'
+        node.value = null;
+        nodeCount--;
+        retrace(depth);
+        return true;
+    }
+
+    // Walks back up the first 'depth' nodes of the recorded path, updating
+    // heights and rotating where needed. Stops as soon as a subtree ends up with
+    // the same height it had before, because then no ancestor can change.
+    private void retrace(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            Node node = path[i];
+            int oldHeight = node.height;
+
+            update(node);
+            Node subtree = balance(node);
+
+            if (subtree != node) {
+                if (i == 0) root = subtree;
+                else if (wentLeft[i - 1]) path[i - 1].left = subtree;
+                else path[i - 1].right = subtree;
+            }
+
+            if (subtree.height == oldHeight) return;
+        }
+    }
+
+    // Update a node's height and balance factor.
+    private void update(Node node) {
+
+        int leftNodeHeight = (node.left == null) ? -1 : node.left.height;
+        int rightNodeHeight = (node.right == null) ? -1 : node.right.height;
+
+        // Update this node's height.
+        node.height = 1 + Math.max(leftNodeHeight, rightNodeHeight);
+
+        // Update balance factor.
+        node.bf = rightNodeHeight - leftNodeHeight;
+    }
+
+    // Re-balance a node if its balance factor is +2 or -2, returns the new
+    // root of the subtree
+    private Node balance(Node node) {
+
+        // Left heavy subtree.
+        if (node.bf == -2) {
+
+            // Left-Right case
+            if (node.left.bf > 0) node.left = leftRotation(node.left);
+
+            // Left-Left case
+            return rightRotation(node);
+
+        // Right heavy subtree needs balancing.
+        } else if (node.bf == +2) {
+
+            // Right-Left case
+            if (node.right.bf < 0) node.right = rightRotation(node.right);
+
+            // Right-Right case
+            return leftRotation(node);
+        }
+
+        // Node either has a balance factor of 0 , +1 or -1 which is fine
+        return node;
+    }
+
+    private Node leftRotation(Node node) {
+        Node newParent = node.right;
+        node.right = newParent.left;
+        newParent.left = node;
+        update(node);
+        update(newParent);
+        return newParent;
+    }
+
+    private Node rightRotation(Node node) {
+        Node newParent = node.left;
+        node.left = newParent.right;
+        newParent.right = node;
+        update(node);
+        update(newParent);
+        return newParent;
+    }
+
+    // Returns an iterator to traverse the tree in order.
+    public Iterator<T> iterator () {
+
+        final int expectedNodeCount = nodeCount;
+        final java.util.Stack<Node> stack = new java.util.Stack<>();
+        stack.push(root);
+
+        return new Iterator<T> () {
+            Node trav = root;
+            @Override
+            public boolean hasNext() {
+                if (expectedNodeCount != nodeCount) throw new java.util.ConcurrentModificationException();
+                return root != null && !stack.isEmpty();
+            }
+            @Override
+            public T next () {
+
+                if (expectedNodeCount != nodeCount) throw new java.util.ConcurrentModificationException();
+
+                while(trav != null && trav.left != null) {
+                    stack.push(trav.left);
+                    trav = trav.left;
+                }
+
+                Node node = stack.pop();
+
+                if (node.right != null) {
+                    stack.push(node.right);
+                    trav = node.right;
+                }
+
+                return node.value;
+            }
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    // Make sure all left child nodes are smaller in value than their parent and
+    // make sure all right child nodes are greater in value than their parent.
+    boolean validateBSTInvariant(Node node) {
+        if (node == null) return true;
+        T val = node.value;
+        boolean isValid = true;
+        if (node.left != null) isValid = isValid && node.left.value.compareTo(val) < 0;
+        if (node.right != null) isValid = isValid && node.right.value.compareTo(val) > 0;
+        return isValid && validateBSTInvariant(node.left) && validateBSTInvariant(node.right);
+    }
+
+    // Make sure every stored height is correct and every node is balanced,
+    // returns the height of the subtree or -2 if it is invalid.
+    int validateAVLInvariant(Node node) {
+        if (node == null) return -1;
+        int left = validateAVLInvariant(node.left), right = validateAVLInvariant(node.right);
+        if (left == -2 || right == -2) return -2;
+        if (Math.abs(right - left) > 1 || node.height != 1 + Math.max(left, right) || node.bf != right - left) return -2;
+        return node.height;
+    }
+
+    // Compares mutation throughput against AVLTreeRecursive on random values,
+    // the number of values can be passed as the first argument.
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Integer[] values = new Integer[n];
+        Random random = new Random(0);
+        for (int i = 0; i < n; i++) values[i] = random.nextInt();
+
+        for (int round = 0; round < 3; round++) {
+            AVLTreeRecursive<Integer> recursive = new AVLTreeRecursive<>();
+            long start = System.nanoTime();
+            for (Integer value : values) recursive.insert(value);
+            long recursiveInsert = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (Integer value : values) recursive.remove(value);
+            long recursiveRemove = System.nanoTime() - start;
+
+            AVLTreeIterative<Integer> iterative = new AVLTreeIterative<>();
+            start = System.nanoTime();
+            for (Integer value : values) iterative.insert(value);
+            long iterativeInsert = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (Integer value : values) iterative.remove(value);
+            long iterativeRemove = System.nanoTime() - start;
+
+            System.out.printf("recursive: insert %d ms, remove %d ms | iterative: insert %d ms, remove %d ms%n",
+                    recursiveInsert / 1_000_000, recursiveRemove / 1_000_000,
+                    iterativeInsert / 1_000_000, iterativeRemove / 1_000_000);
+        }
+    }
+}
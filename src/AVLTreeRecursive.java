@@ -180,7 +180,7 @@ public class AVLTreeRecursive <T extends Comparable<T>> implements Iterable<T>{
     }
 
     private Node rightRightCase(Node node) {
-        return leftRotation(node.right);
+        return leftRotation(node);
     }
 
     private Node rightLeftCase(Node node) {
@@ -250,7 +250,7 @@ public class AVLTreeRecursive <T extends Comparable<T>> implements Iterable<T>{
             // This is the case with only a left subtree or no subtree at all
             // In this situation just swap the node we wish to remove
             // with its left child.
-            if (node.left == null) {
+            if (node.right == null) {
                 return node.left;
             }
 
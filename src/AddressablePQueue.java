@@ -0,0 +1,212 @@
+/**
+ * A min priority queue implementation using a binary heap where
+ * every element is addressed through the handle returned by add
+ * **/
+
+import java.util.Arrays;
+
+public class AddressablePQueue <T extends Comparable<T>> {
+
+    // A reference to an element inside the heap. The handle knows its own
+    // position in the heap, which is what makes remove and update O(log(n))
+    // without any value -> position map.
+    public static final class Handle <T> {
+
+        private T value;
+
+        // Position of this handle in the heap, -1 once it left the queue
+        private int index;
+
+        private Handle(T value, int index) {
+            this.value = value;
+            this.index = index;
+        }
+
+        public T value() {
+            return value;
+        }
+
+        @Override public String toString() {
+            return String.valueOf(value);
+        }
+    }
+
+    // The number of elements currently inside the heap
+    private int heapSize = 0;
+
+    // The heap itself, heap[i] has children 2i+1 and 2i+2
+    private Handle<T>[] heap;
+
+    // Construct an initially empty priority queue
+    public AddressablePQueue() {
+        this(1);
+    }
+
+    // Construct a priority queue with an initial capacity
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AddressablePQueue(int sz) {
+        heap = (Handle<T>[]) new Handle[Math.max(1, sz)];
+    }
+
+    // Returns true/false depending on if the priority queue is empty
+    public boolean isEmpty() {
+        return heapSize == 0;
+    }
+
+    // Clears everything inside the heap, O(n)
+    public void clear() {
+        for (int i = 0; i < heapSize; i++) {
+            heap[i].index = -1;
+            heap[i] = null;
+        }
+        heapSize = 0;
+    }
+
+    // Return the size of the heap
+    public int size() {
+        return heapSize;
+    }
+
+    // Returns the value of the element with the lowest
+    // priority in this priority queue. If the priority
+    // queue is empty null is returned
+    public T peek() {
+        if (isEmpty()) return null;
+        return heap[0].value;
+    }
+
+    // Removes the root of the heap, O(log(n))
+    public T poll() {
+        if (isEmpty()) return null;
+        return removeAt(0);
+    }
+
+    // Test if the handle is still inside this heap, O(1)
+    public boolean contains(Handle<T> handle) {
+        return handle != null && handle.index >= 0 && handle.index < heapSize && heap[handle.index] == handle;
+    }
+
+    // Adds an element to the priority queue, the element must not be
+    // null. Returns a handle which addresses the element, O(log(n))
+    public Handle<T> add(T elem) {
+
+        if (elem == null) throw new IllegalArgumentException();
+
+        if (heapSize == heap.length) heap = Arrays.copyOf(heap, 2 * heapSize);
+
+        Handle<T> handle = new Handle<>(elem, heapSize);
+        heap[heapSize] = handle;
+        swim(heapSize);
+        heapSize++;
+        return handle;
+    }
+
+    // Removes the element addressed by the handle, O(log(n))
+    public boolean remove(Handle<T> handle) {
+        if (!contains(handle)) return false;
+        removeAt(handle.index);
+        return true;
+    }
+
+    // Changes the priority of the element addressed by the handle, O(log(n))
+    public void update(Handle<T> handle, T newValue) {
+        if (newValue == null) throw new IllegalArgumentException();
+        if (!contains(handle)) throw new IllegalArgumentException("Handle is not in this priority queue");
+
+        T oldValue = handle.value;
+        handle.value = newValue;
+        if (newValue.compareTo(oldValue) < 0) swim(handle.index);
+        else sink(handle.index);
+    }
+
+    // Test if the value of node i <= node j
+    // This method assumes that i & j are valid indices, O(1)
+    private boolean less(int i, int j) {
+        return heap[i].value.compareTo(heap[j].value) <= 0;
+    }
+
+    // Bottom up node swim, O(log(n))
+    private void swim(int k) {
+        int parent = (k - 1) / 2;
+        while (k > 0 && less(k, parent)) {
+            swap(parent, k);
+            k = parent;
+            parent = (k - 1) / 2;
+        }
+    }
+
+    // Top down node sink, O(log(n))
+    private void sink(int k) {
+        while (true) {
+            int left = 2 * k + 1;
+            int right = 2 * k + 2;
+            int smallest = left;
+
+            if (right < heapSize && less(right, smallest))
+                smallest = right;
+
+            if (left >= heapSize || less(k, smallest))
+                break;
+
+            swap(k, smallest);
+            k = smallest;
+        }
+    }
+
+    // Swap two nodes and their positions, Assumes i & j are valid, O(1)
+    private void swap(int i, int j) {
+        Handle<T> handle = heap[i];
+        heap[i] = heap[j];
+        heap[j] = handle;
+        heap[i].index = i;
+        heap[j].index = j;
+    }
+
+    // Remove a node at particular index, O(log(n))
+    private T removeAt(int i) {
+
+        heapSize--;
+        Handle<T> removed = heap[i];
+        swap(i, heapSize);
+
+        // Obliterate the value
+        heap[heapSize] = null;
+        removed.index = -1;
+
+        // Removed last element
+        if (i == heapSize) return removed.value;
+
+        // Try sinking element, if sinking did not work, try swimming
+        Handle<T> elem = heap[i];
+        sink(i);
+        if (heap[i] == elem) swim(i);
+
+        return removed.value;
+    }
+
+    // Recursively checks if the heap is a min heap
+    // This method is just for testing purposes to make
+    // sure the heap invariant is being maintained
+    // Call this method with k = 0 to start at root
+    public boolean isMinHeap(int k) {
+
+        if (k >= heapSize) return true;
+
+        int left = 2 * k + 1;
+        int right = 2 * k + 2;
+
+        if (left < heapSize && !less(k, left)) return false;
+        if (right < heapSize && !less(k, right)) return false;
+
+        return isMinHeap(left) && isMinHeap(right);
+    }
+
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < heapSize; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(heap[i].value);
+        }
+        return sb.append(']').toString();
+    }
+}
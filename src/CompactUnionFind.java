@@ -0,0 +1,122 @@
+import java.util.function.IntConsumer;
+
+// A memory compact union find. Instead of the separate 'id' and 'sz' arrays
+// of UnionFind a single array is used: a root stores the negated size of its
+// component and every other element stores its parent.
+//
+// Optionally a second array links the members of every component into a
+// circular list, which allows listing the members of a component in time
+// proportional to its size instead of scanning all the elements.
+public class CompactUnionFind {
+
+    // The number of elements of this union find
+    private final int size;
+
+    // parent[i] < 0 means i is a root and -parent[i] is the size of its
+    // component, otherwise parent[i] is the parent of i
+    private final int[] parent;
+
+    // next[i] is the next member of i's component in a circular list,
+    // null when member tracking is disabled
+    private final int[] next;
+
+    // Tracks the number of components in the union find
+    private int numComponents;
+
+    public CompactUnionFind(int size) {
+        this(size, false);
+    }
+
+    public CompactUnionFind(int size, boolean trackMembers) {
+
+        if (size <= 0) throw new IllegalArgumentException("Size <= 0 is not allowed");
+
+        this.size = numComponents = size;
+        parent = new int[size];
+        next = trackMembers ? new int[size] : null;
+
+        for (int i = 0; i < size; i++) {
+            parent[i] = -1; // Each element is a root of size 1
+            if (next != null) next[i] = i;
+        }
+    }
+
+    // Find which component/set p belongs to. Uses path halving, every node on the
+    // path is pointed at its grand parent in a single pass. Takes amortized constant time
+    public int find(int p) {
+        while (parent[p] >= 0) {
+            int q = parent[p];
+            if (parent[q] >= 0) parent[p] = parent[q];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    // Are p and q in same component/set
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    // Size of component p belongs to
+    public int componentSize(int p) {
+        return -parent[find(p)];
+    }
+
+    // Number of elements in this UnionFind/Disjoint Set
+    public int size() {
+        return size;
+    }
+
+    public int components() {
+        return numComponents;
+    }
+
+    // Returns the members of the component p belongs to, O(component size)
+    public int[] members(int p) {
+        if (next == null) throw new IllegalStateException("Member tracking is disabled");
+        int[] members = new int[componentSize(p)];
+        for (int i = 0, member = p; i < members.length; i++, member = next[member])
+            members[i] = member;
+        return members;
+    }
+
+    // Calls 'action' for every member of the component p belongs to, O(component size)
+    public void forEachMember(int p, IntConsumer action) {
+        if (next == null) throw new IllegalStateException("Member tracking is disabled");
+        int member = p;
+        do {
+            action.accept(member);
+            member = next[member];
+        } while (member != p);
+    }
+
+    // Unify components/sets containing elements p and q
+    public void unify(int p, int q) {
+
+        int root1 = find(p);
+        int root2 = find(q);
+
+        if (root1 == root2) return;
+
+        // Sizes are stored negated so the larger component has the smaller value
+        if (parent[root1] > parent[root2]) {
+            parent[root2] += parent[root1];
+            parent[root1] = root2;
+        } else {
+            parent[root1] += parent[root2];
+            parent[root2] = root1;
+        }
+
+        // Swapping the successors of two elements of different circular
+        // lists splices the two lists into one, O(1)
+        if (next != null) {
+            int tmp = next[root1];
+            next[root1] = next[root2];
+            next[root2] = tmp;
+        }
+
+        // Since the roots were different, unification will decrease
+        // component number by 1
+        numComponents--;
+    }
+}
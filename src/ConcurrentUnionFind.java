@@ -0,0 +1,121 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// A lock free union find which can be shared between threads without any
+// external synchronization. Roots are linked with a single CAS using union by
+// index (the root with the smaller index is always placed below the one with
+// the larger index so no cycles can form) and a failed CAS simply retries.
+// Paths are shortened with path halving, whose CAS writes are benign: losing
+// one of them only means the path stays a little longer.
+public class ConcurrentUnionFind {
+
+    // The number of elements of this union find
+    private final int size;
+
+    // id[i] points to the parent of i, if id[i] = i then i is the root node
+    private final AtomicIntegerArray id;
+
+    // Track sizes of each of the components, only meaningful at roots. A
+    // non root may briefly hold a size which has not been forwarded yet.
+    private final AtomicIntegerArray sz;
+
+    // Tracks the number of components in the union find
+    private final AtomicInteger numComponents;
+
+    public ConcurrentUnionFind(int size) {
+
+        if (size <= 0) throw new IllegalArgumentException("Size <= 0 is not allowed");
+
+        this.size = size;
+        numComponents = new AtomicInteger(size);
+        id = new AtomicIntegerArray(size);
+        sz = new AtomicIntegerArray(size);
+
+        for (int i = 0; i < size; i++) {
+            sz.set(i, 1); // Each Component is size 1 at the beginning
+            id.set(i, i); // Each element is it's own root
+        }
+    }
+
+    // Find which component/set p belongs to, amortized O(log(n)) with path halving
+    public int find(int p) {
+        while (true) {
+            int parent = id.get(p);
+            if (parent == p) return p;
+            int grandParent = id.get(parent);
+            if (parent != grandParent) id.compareAndSet(p, parent, grandParent);
+            p = grandParent;
+        }
+    }
+
+    // Are p and q in same component/set. This is linearizable: if the roots
+    // differ and p's root is still a root afterwards then at that moment the
+    // two elements were in different components.
+    public boolean connected(int p, int q) {
+        while (true) {
+            p = find(p);
+            q = find(q);
+            if (p == q) return true;
+            if (id.get(p) == p) return false;
+        }
+    }
+
+    // Size of component p belongs to. Exact when no unify is in progress,
+    // a concurrent unify may make it briefly undercount.
+    public int componentSize(int p) {
+        while (true) {
+            int root = find(p);
+            int s = sz.get(root);
+            if (id.get(root) == root) return s;
+        }
+    }
+
+    // Number of elements in this UnionFind/Disjoint Set
+    public int size() {
+        return size;
+    }
+
+    public int components() {
+        return numComponents.get();
+    }
+
+    // Unify components/sets containing elements p and q
+    public void unify(int p, int q) {
+        while (true) {
+            int root1 = find(p);
+            int root2 = find(q);
+
+            if (root1 == root2) return;
+
+            // Always link the smaller index below the larger index
+            if (root1 > root2) {
+                int tmp = root1;
+                root1 = root2;
+                root2 = tmp;
+            }
+
+            if (id.compareAndSet(root1, root1, root2)) {
+
+                // Since the roots were different, unification will decrease
+                // component number by 1
+                numComponents.decrementAndGet();
+                forwardSize(root1);
+                return;
+            }
+        }
+    }
+
+    // Moves whatever size is stored at the non root 'node' to its current
+    // root. Another thread may add to 'node' after it stopped being a root,
+    // so the adder re-checks and forwards again; no increment can get lost.
+    private void forwardSize(int node) {
+        int amount = sz.getAndSet(node, 0);
+        while (amount != 0) {
+            int root = find(node);
+            sz.addAndGet(root, amount);
+            if (id.get(root) == root) return;
+            node = root;
+            amount = sz.getAndSet(node, 0);
+        }
+    }
+}
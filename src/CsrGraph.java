@@ -0,0 +1,185 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// A directed weighted graph in compressed sparse row (CSR) form. The edges
+// leaving vertex v are targets[offsets[v]] .. targets[offsets[v + 1] - 1]
+// with the matching weights, so iterating the neighbours of a vertex is a
+// sequential scan over two primitive arrays without any per edge objects.
+//
+// The binary file format written by save and read by load is:
+//   int n, int m, int[n + 1] offsets, int[m] targets, double[m] weights
+// all big endian.
+public class CsrGraph {
+
+    private final int n;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+
+    public CsrGraph(int n, int[] offsets, int[] targets, double[] weights) {
+        if (n < 0) throw new IllegalArgumentException("n < 0 is not allowed");
+        if (offsets == null || offsets.length != n + 1 || offsets[0] != 0)
+            throw new IllegalArgumentException("offsets must have n + 1 entries starting at 0");
+        if (targets == null || weights == null || targets.length != weights.length || offsets[n] != targets.length)
+            throw new IllegalArgumentException("targets and weights must both have offsets[n] entries");
+
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    // Builds a graph from an edge list with a counting sort, O(n + m). When
+    // 'undirected' is set every edge is stored in both directions.
+    public static CsrGraph fromEdges(int n, int[] from, int[] to, double[] weights, boolean undirected) {
+        if (from.length != to.length || from.length != weights.length)
+            throw new IllegalArgumentException("from, to and weights must be of equal length");
+
+        int m = undirected ? 2 * from.length : from.length;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < from.length; i++) {
+            offsets[from[i] + 1]++;
+            if (undirected) offsets[to[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) offsets[v + 1] += offsets[v];
+
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] targets = new int[m];
+        double[] w = new double[m];
+        for (int i = 0; i < from.length; i++) {
+            int e = next[from[i]]++;
+            targets[e] = to[i];
+            w[e] = weights[i];
+            if (undirected) {
+                e = next[to[i]]++;
+                targets[e] = from[i];
+                w[e] = weights[i];
+            }
+        }
+        return new CsrGraph(n, offsets, targets, w);
+    }
+
+    public int numVertices() {
+        return n;
+    }
+
+    public int numEdges() {
+        return targets.length;
+    }
+
+    // Index of the first edge leaving v
+    public int edgesFrom(int v) {
+        return offsets[v];
+    }
+
+    // Index one past the last edge leaving v
+    public int edgesTo(int v) {
+        return offsets[v + 1];
+    }
+
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    public int target(int e) {
+        return targets[e];
+    }
+
+    public double weight(int e) {
+        return weights[e];
+    }
+
+    // Files are mapped and written in windows of this many bytes, a single
+    // MappedByteBuffer cannot be larger than 2GB
+    private static final int WINDOW_BYTES = 1 << 26;
+
+    // Reads a graph written by save through memory mapped views of the file
+    public static CsrGraph load(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < 8) throw new IllegalArgumentException("File too short for a CSR graph header");
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 8);
+            int n = header.getInt(), m = header.getInt();
+
+            long expected = 8L + 4L * (n + 1) + 12L * m;
+            if (n < 0 || m < 0 || channel.size() != expected)
+                throw new IllegalArgumentException("File size " + channel.size() + " does not match n=" + n + ", m=" + m);
+
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[m];
+            double[] weights = new double[m];
+
+            long position = 8;
+            position = readInts(channel, position, offsets);
+            position = readInts(channel, position, targets);
+            readDoubles(channel, position, weights);
+
+            return new CsrGraph(n, offsets, targets, weights);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long readInts(FileChannel channel, long position, int[] array) throws IOException {
+        for (int i = 0; i < array.length; ) {
+            int count = Math.min(array.length - i, WINDOW_BYTES / 4);
+            channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * count).asIntBuffer().get(array, i, count);
+            position += 4L * count;
+            i += count;
+        }
+        return position;
+    }
+
+    private static long readDoubles(FileChannel channel, long position, double[] array) throws IOException {
+        for (int i = 0; i < array.length; ) {
+            int count = Math.min(array.length - i, WINDOW_BYTES / 8);
+            channel.map(FileChannel.MapMode.READ_ONLY, position, 8L * count).asDoubleBuffer().get(array, i, count);
+            position += 8L * count;
+            i += count;
+        }
+        return position;
+    }
+
+    // Writes the graph in the format read by load
+    public void save(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WINDOW_BYTES);
+            buffer.putInt(n).putInt(targets.length);
+            writeInts(channel, buffer, offsets);
+            writeInts(channel, buffer, targets);
+            for (int i = 0; i < weights.length; ) {
+                if (buffer.remaining() < 8) drain(channel, buffer);
+                int count = Math.min(weights.length - i, buffer.remaining() / 8);
+                buffer.asDoubleBuffer().put(weights, i, count);
+                buffer.position(buffer.position() + 8 * count);
+                i += count;
+            }
+            drain(channel, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] array) throws IOException {
+        for (int i = 0; i < array.length; ) {
+            if (buffer.remaining() < 4) drain(channel, buffer);
+            int count = Math.min(array.length - i, buffer.remaining() / 4);
+            buffer.asIntBuffer().put(array, i, count);
+            buffer.position(buffer.position() + 4 * count);
+            i += count;
+        }
+    }
+
+    // Writes out everything in the buffer and clears it
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+// Shortest path and spanning tree algorithms over a CsrGraph, driven by the
+// indexed decrease key of MinIndexedHeap: every vertex is a key index so a
+// better distance updates the vertex in place instead of inserting duplicates.
+public class CsrGraphSearch {
+
+    // A 4-ary heap does fewer levels of sink than a binary one on the
+    // poll heavy workload of Dijkstra
+    private static final int HEAP_DEGREE = 4;
+
+    private CsrGraphSearch() {
+    }
+
+    public static MinIndexedHeap<Double> newHeap(CsrGraph graph) {
+        return new MinIndexedHeap<>(HEAP_DEGREE, Math.max(1, graph.numVertices()));
+    }
+
+    // Returns the distance from 'source' to every vertex (infinity if unreachable).
+    // Edge weights must be non negative, O((n + m)log(n))
+    public static double[] dijkstra(CsrGraph graph, int source) {
+        double[] dist = new double[graph.numVertices()];
+        dijkstra(graph, source, newHeap(graph), dist);
+        return dist;
+    }
+
+    // Same as above but reuses a caller supplied (empty) heap and distance array
+    public static void dijkstra(CsrGraph graph, int source, MinIndexedHeap<Double> heap, double[] dist) {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        heap.insert(source, 0.0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.pollMinKeyIndex();
+            relax(graph, u, dist, heap);
+        }
+    }
+
+    // Relaxes every edge leaving u
+    private static void relax(CsrGraph graph, int u, double[] dist, MinIndexedHeap<Double> heap) {
+        for (int e = graph.edgesFrom(u), end = graph.edgesTo(u); e < end; e++) {
+            int v = graph.target(e);
+            double d = dist[u] + graph.weight(e);
+            if (d >= dist[v]) continue;
+            dist[v] = d;
+            if (heap.contains(v)) heap.decrease(v, d);
+            else heap.insert(v, d);
+        }
+    }
+
+    // Returns the length of the shortest path from 'source' to 'target' or infinity
+    // if there is none. 'heuristic' must never overestimate the remaining
+    // distance to 'target' (and be consistent) for the result to be exact.
+    public static double aStar(CsrGraph graph, int source, int target, IntToDoubleFunction heuristic) {
+        int n = graph.numVertices();
+        double[] dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        boolean[] closed = new boolean[n];
+
+        MinIndexedHeap<Double> heap = newHeap(graph);
+        dist[source] = 0;
+        heap.insert(source, heuristic.applyAsDouble(source));
+
+        while (!heap.isEmpty()) {
+            int u = heap.pollMinKeyIndex();
+            if (u == target) return dist[u];
+            closed[u] = true;
+
+            for (int e = graph.edgesFrom(u), end = graph.edgesTo(u); e < end; e++) {
+                int v = graph.target(e);
+                double d = dist[u] + graph.weight(e);
+                if (closed[v] || d >= dist[v]) continue;
+                dist[v] = d;
+                double priority = d + heuristic.applyAsDouble(v);
+                if (heap.contains(v)) heap.decrease(v, priority);
+                else heap.insert(v, priority);
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    // Prim's algorithm on an undirected graph (every edge stored in both
+    // directions). Returns the parent of every vertex in a minimum spanning
+    // forest, -1 for the root of each tree, O((n + m)log(n))
+    public static int[] prim(CsrGraph graph) {
+        int n = graph.numVertices();
+        int[] parent = new int[n];
+        Arrays.fill(parent, -1);
+        double[] best = new double[n];
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        boolean[] inTree = new boolean[n];
+
+        MinIndexedHeap<Double> heap = newHeap(graph);
+        for (int root = 0; root < n; root++) {
+            if (inTree[root]) continue;
+            best[root] = 0;
+            heap.insert(root, 0.0);
+
+            while (!heap.isEmpty()) {
+                int u = heap.pollMinKeyIndex();
+                inTree[u] = true;
+
+                for (int e = graph.edgesFrom(u), end = graph.edgesTo(u); e < end; e++) {
+                    int v = graph.target(e);
+                    double w = graph.weight(e);
+                    if (inTree[v] || w >= best[v]) continue;
+                    best[v] = w;
+                    parent[v] = u;
+                    if (heap.contains(v)) heap.decrease(v, w);
+                    else heap.insert(v, w);
+                }
+            }
+        }
+        return parent;
+    }
+
+    // Runs Dijkstra from every source in parallel across the common fork join
+    // pool. The heaps are pooled for the duration of this call only: a query
+    // takes a free heap (or creates one) and hands it back empty, so there are
+    // at most as many heaps as concurrent queries and none outlive the call.
+    // Returns dist[i][v], the distance from sources[i] to v.
+    public static double[][] dijkstraAll(CsrGraph graph, int[] sources) {
+        ConcurrentLinkedQueue<MinIndexedHeap<Double>> heaps = new ConcurrentLinkedQueue<>();
+        double[][] dist = new double[sources.length][];
+        IntStream.range(0, sources.length).parallel().forEach(i -> {
+            MinIndexedHeap<Double> heap = heaps.poll();
+            if (heap == null) heap = newHeap(graph);
+            dist[i] = new double[graph.numVertices()];
+            dijkstra(graph, sources[i], heap, dist[i]);
+            heaps.offer(heap);
+        });
+        return dist;
+    }
+}
@@ -0,0 +1,154 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+// A D-ary min heap of (double key, int value) pairs, for example
+// (distance, vertex). The keys and values are stored in two parallel
+// primitive arrays so there is no wrapper object per entry, no virtual
+// compareTo and poll never allocates.
+public class DoubleIntHeap {
+
+    private static final int DEFAULT_DEGREE = 4;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // The degree of every node in the heap
+    private final int D;
+
+    // Current number of elements in the heap
+    private int sz;
+
+    // keys[i] is the priority of node i and values[i] its payload,
+    // node i has children [i*D + 1, i*D + D]
+    private double[] keys;
+    private int[] values;
+
+    public DoubleIntHeap() {
+        this(DEFAULT_DEGREE, DEFAULT_CAPACITY);
+    }
+
+    public DoubleIntHeap(int degree, int initialCapacity) {
+        if (initialCapacity < 0) throw new IllegalArgumentException("initialCapacity < 0");
+        D = Math.max(2, degree);
+        keys = new double[Math.max(1, initialCapacity)];
+        values = new int[keys.length];
+    }
+
+    // Builds a heap from the given pairs using heapify in O(n) time
+    public DoubleIntHeap(int degree, double[] keys, int[] values) {
+        this(degree, keys.length);
+        addAll(keys, values);
+    }
+
+    public int size() {
+        return sz;
+    }
+
+    public boolean isEmpty() {
+        return sz == 0;
+    }
+
+    public void clear() {
+        sz = 0;
+    }
+
+    // Returns the smallest key
+    public double peekKey() {
+        isNotEmptyOrThrow();
+        return keys[0];
+    }
+
+    // Returns the value paired with the smallest key
+    public int peekValue() {
+        isNotEmptyOrThrow();
+        return values[0];
+    }
+
+    // Removes the pair with the smallest key and returns its value, O(log(n))
+    public int poll() {
+        isNotEmptyOrThrow();
+        int value = values[0];
+        sz--;
+        if (sz > 0) sink(0, keys[sz], values[sz]);
+        return value;
+    }
+
+    // Adds a pair to the heap, amortized O(log(n))
+    public void add(double key, int value) {
+        ensureCapacity(sz + 1);
+        swim(sz++, key, value);
+    }
+
+    // Adds all the given pairs. Large batches are appended and heapified
+    // bottom up in O(n + k), small ones are added one by one in O(klog(n)).
+    public void addAll(double[] keys, int[] values) {
+        if (keys == null || values == null || keys.length != values.length)
+            throw new IllegalArgumentException("keys and values must be non null and of equal length");
+
+        final int k = keys.length;
+        ensureCapacity(sz + k);
+        if ((long) k * log2(sz + k) < sz + k) {
+            for (int i = 0; i < k; i++) swim(sz++, keys[i], values[i]);
+            return;
+        }
+
+        System.arraycopy(keys, 0, this.keys, sz, k);
+        System.arraycopy(values, 0, this.values, sz, k);
+        sz += k;
+        for (int i = (sz - 2) / D; i >= 0; i--) sink(i, this.keys[i], this.values[i]);
+    }
+
+    private static int log2(int n) {
+        return 32 - Integer.numberOfLeadingZeros(n);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= keys.length) return;
+        int newCapacity = Math.max(capacity, 2 * keys.length);
+        keys = Arrays.copyOf(keys, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+    }
+
+    // Places (key, value) at node i or above it. Parents are moved down into
+    // the hole instead of swapping, halving the number of writes.
+    private void swim(int i, double key, int value) {
+        while (i > 0) {
+            int parent = (i - 1) / D;
+            if (keys[parent] <= key) break;
+            keys[i] = keys[parent];
+            values[i] = values[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    // Places (key, value) at node i or below it, moving the smallest child
+    // up into the hole until (key, value) fits.
+    private void sink(int i, double key, int value) {
+        while (true) {
+            int from = i * D + 1;
+            if (from >= sz) break;
+            int to = Math.min(sz, from + D);
+            int smallest = from;
+            for (int j = from + 1; j < to; j++)
+                if (keys[j] < keys[smallest]) smallest = j;
+            if (keys[smallest] >= key) break;
+            keys[i] = keys[smallest];
+            values[i] = values[smallest];
+            i = smallest;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    private void isNotEmptyOrThrow() {
+        if (isEmpty()) throw new NoSuchElementException("Priority queue underflow");
+    }
+
+    // Checks that no node is smaller than its parent. This method is used
+    // for testing purposes to validate the heap invariant.
+    public boolean isMinHeap() {
+        for (int i = 1; i < sz; i++)
+            if (keys[i] < keys[(i - 1) / D]) return false;
+        return true;
+    }
+}
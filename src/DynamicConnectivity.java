@@ -0,0 +1,132 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Offline dynamic connectivity. Record a sequence of edge insertions, edge
+// deletions and connectivity queries, then call solve() to answer every query.
+//
+// Every edge is alive during an interval of operation times. These intervals
+// are stored in a segment tree over time, each one in O(log(T)) nodes. A depth
+// first walk over the segment tree unifies the edges of a node on the way down
+// and rolls them back with a RollbackUnionFind on the way up, so at every leaf
+// exactly the edges alive at that time are unified. O(log(T)log(n)) per operation.
+public class DynamicConnectivity {
+
+    private static final byte ADD = 0, REMOVE = 1, QUERY = 2;
+
+    private final int n;
+
+    // The recorded operations, one per unit of time
+    private byte[] types = new byte[16];
+    private int[] us = new int[16], vs = new int[16];
+    private int ops, queries;
+
+    public DynamicConnectivity(int n) {
+        if (n <= 0) throw new IllegalArgumentException("n <= 0 is not allowed");
+        this.n = n;
+    }
+
+    public void addEdge(int u, int v) {
+        record(ADD, u, v);
+    }
+
+    // Removes one copy of the edge (u, v) which must currently exist
+    public void removeEdge(int u, int v) {
+        record(REMOVE, u, v);
+    }
+
+    // Asks whether u and v are connected at this point of the sequence.
+    // Returns the index of the query in the array returned by solve().
+    public int query(int u, int v) {
+        record(QUERY, u, v);
+        return queries++;
+    }
+
+    private void record(byte type, int u, int v) {
+        if (u < 0 || u >= n || v < 0 || v >= n)
+            throw new IllegalArgumentException("Vertex out of bounds; received: (" + u + ", " + v + ")");
+        if (ops == types.length) {
+            types = Arrays.copyOf(types, 2 * ops);
+            us = Arrays.copyOf(us, 2 * ops);
+            vs = Arrays.copyOf(vs, 2 * ops);
+        }
+        types[ops] = type;
+        us[ops] = u;
+        vs[ops] = v;
+        ops++;
+    }
+
+    // Answers all the recorded queries, in the order they were made
+    public boolean[] solve() {
+        boolean[] answers = new boolean[queries];
+        if (ops == 0) return answers;
+
+        // Segment tree over time [0, ops), node k has children 2k and 2k+1.
+        // Every node keeps the list of edges alive during its whole interval.
+        int[][] nodeEdges = new int[4 * ops][];
+        int[] nodeSizes = new int[4 * ops];
+
+        // Match every removal with the most recent open insertion of the same edge
+        Map<Long, ArrayDeque<Integer>> open = new HashMap<>();
+        for (int t = 0; t < ops; t++) {
+            if (types[t] == QUERY) continue;
+            long key = edgeKey(us[t], vs[t]);
+            if (types[t] == ADD) {
+                open.computeIfAbsent(key, k -> new ArrayDeque<>()).push(t);
+            } else {
+                ArrayDeque<Integer> starts = open.get(key);
+                if (starts == null || starts.isEmpty())
+                    throw new IllegalStateException("Removed edge (" + us[t] + ", " + vs[t] + ") does not exist");
+                addInterval(nodeEdges, nodeSizes, 1, 0, ops - 1, starts.pop(), t - 1, t);
+            }
+        }
+        for (ArrayDeque<Integer> starts : open.values())
+            for (int start : starts) addInterval(nodeEdges, nodeSizes, 1, 0, ops - 1, start, ops - 1, start);
+
+        RollbackUnionFind uf = new RollbackUnionFind(n);
+        int[] queryIndex = {0};
+        walk(uf, nodeEdges, nodeSizes, 1, 0, ops - 1, answers, queryIndex);
+        return answers;
+    }
+
+    private static long edgeKey(int u, int v) {
+        return ((long) Math.min(u, v) << 32) | Math.max(u, v);
+    }
+
+    // Registers the edge added at time 'edge' as alive during [from, to]
+    private static void addInterval(int[][] nodeEdges, int[] nodeSizes, int node, int lo, int hi,
+                                    int from, int to, int edge) {
+        if (to < lo || hi < from || from > to) return;
+        if (from <= lo && hi <= to) {
+            int sz = nodeSizes[node];
+            if (nodeEdges[node] == null) nodeEdges[node] = new int[2];
+            else if (sz == nodeEdges[node].length) nodeEdges[node] = Arrays.copyOf(nodeEdges[node], 2 * sz);
+            nodeEdges[node][nodeSizes[node]++] = edge;
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        addInterval(nodeEdges, nodeSizes, 2 * node, lo, mid, from, to, edge);
+        addInterval(nodeEdges, nodeSizes, 2 * node + 1, mid + 1, hi, from, to, edge);
+    }
+
+    // Depth first walk over time, unifying on the way down and rolling back on the way up
+    private void walk(RollbackUnionFind uf, int[][] nodeEdges, int[] nodeSizes, int node, int lo, int hi,
+                      boolean[] answers, int[] queryIndex) {
+        int snapshot = uf.snapshot();
+        for (int i = 0; i < nodeSizes[node]; i++) {
+            int edge = nodeEdges[node][i];
+            uf.unify(us[edge], vs[edge]);
+        }
+
+        if (lo == hi) {
+            if (types[lo] == QUERY) answers[queryIndex[0]++] = uf.connected(us[lo], vs[lo]);
+        } else {
+            int mid = (lo + hi) >>> 1;
+            walk(uf, nodeEdges, nodeSizes, 2 * node, lo, mid, answers, queryIndex);
+            walk(uf, nodeEdges, nodeSizes, 2 * node + 1, mid + 1, hi, answers, queryIndex);
+        }
+
+        uf.rollback(snapshot);
+    }
+}
@@ -0,0 +1,372 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Sorts a binary file of big endian 64 bit signed integers which may be far
+// larger than the Java heap, within a fixed memory budget.
+//
+// Phase 1 cuts the input into chunks which fit the budget, sorts them on
+// several threads at once and writes every chunk to a temporary run file
+// through a FileChannel. Phase 2 repeatedly merges up to 'fanIn' runs into one
+// with a MinIndexedHeap whose key indexes are the runs, until a single run,
+// the output, is left. Runs are read through memory mapped windows so the
+// merge streams straight from the page cache without read() copies.
+public class ExternalSort {
+
+    // Every record is one 64 bit value
+    private static final int RECORD_BYTES = 8;
+
+    // A single MappedByteBuffer cannot be larger than 2GB, keep the windows moderate
+    private static final int MAX_WINDOW_BYTES = 1 << 26;
+    private static final int MIN_WINDOW_BYTES = 1 << 12;
+
+    public static class Stats {
+
+        public final long records;
+        public final int runs;
+        public final int mergePasses;
+        public final long runNanos;
+        public final long mergeNanos;
+
+        private Stats(long records, int runs, int mergePasses, long runNanos, long mergeNanos) {
+            this.records = records;
+            this.runs = runs;
+            this.mergePasses = mergePasses;
+            this.runNanos = runNanos;
+            this.mergeNanos = mergeNanos;
+        }
+
+        // Megabytes of input sorted into runs per second
+        public double runThroughput() {
+            return throughput(records * RECORD_BYTES, runNanos);
+        }
+
+        // Megabytes written per second over all merge passes
+        public double mergeThroughput() {
+            return throughput((long) mergePasses * records * RECORD_BYTES, mergeNanos);
+        }
+
+        private static double throughput(long bytes, long nanos) {
+            return nanos == 0 ? 0 : bytes / 1e6 / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d records, %d runs in %.1f ms (%.1f MB/s), %d merge passes in %.1f ms (%.1f MB/s)",
+                    records, runs, runNanos / 1e6, runThroughput(), mergePasses, mergeNanos / 1e6, mergeThroughput());
+        }
+    }
+
+    private final long memoryBytes;
+    private final int fanIn;
+    private final int threads;
+    private final Path tempDir;
+
+    // 'memoryBytes' bounds the sort buffers and merge windows in use at any time,
+    // at most 'fanIn' runs are merged at once and runs are generated on
+    // 'threads' threads. Temporary runs are created in 'tempDir'.
+    public ExternalSort(long memoryBytes, int fanIn, int threads, Path tempDir) {
+        if (fanIn < 2) throw new IllegalArgumentException("fanIn < 2");
+        if (threads < 1) throw new IllegalArgumentException("threads < 1");
+        long minimum = (long) Math.max(fanIn + 1, threads) * MIN_WINDOW_BYTES;
+        if (memoryBytes < minimum)
+            throw new IllegalArgumentException("memoryBytes must be at least " + minimum);
+        this.memoryBytes = memoryBytes;
+        this.fanIn = fanIn;
+        this.threads = threads;
+        this.tempDir = tempDir;
+    }
+
+    // Sorts 'input' into 'output' in ascending order
+    public Stats sort(Path input, Path output) {
+        List<Path> runs = new ArrayList<>();
+        try {
+            long size = Files.size(input);
+            if (size % RECORD_BYTES != 0)
+                throw new IllegalArgumentException("File size " + size + " is not a multiple of " + RECORD_BYTES);
+            long records = size / RECORD_BYTES;
+
+            long start = System.nanoTime();
+            runs.addAll(generateRuns(input, records));
+            long runNanos = System.nanoTime() - start;
+            int runCount = runs.size();
+
+            start = System.nanoTime();
+            int passes = 0;
+            if (runs.isEmpty()) {
+                Files.write(output, new byte[0]);
+            } else if (runs.size() == 1) {
+                Files.move(runs.remove(0), output, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                while (runs.size() > fanIn) {
+                    runs = mergePass(runs);
+                    passes++;
+                }
+                merge(runs, output);
+                deleteAll(runs);
+                runs.clear();
+                passes++;
+            }
+            return new Stats(records, runCount, passes, runNanos, System.nanoTime() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteAll(runs);
+        }
+    }
+
+    // Phase 1: sorts chunks of the input in parallel and writes each to its own run.
+    // Each thread holds one chunk and one write buffer at a time, and both
+    // come out of the thread's share of the budget.
+    private List<Path> generateRuns(Path input, long records) throws IOException {
+        long share = memoryBytes / threads;
+        long writerBytes = Math.min(1 << 20, share / 8);
+        final int bufferBytes = (int) Math.max(RECORD_BYTES, writerBytes - writerBytes % RECORD_BYTES);
+        long maxChunk = Math.min((share - bufferBytes) / RECORD_BYTES, Integer.MAX_VALUE - 8);
+        int chunk = (int) Math.max(1, maxChunk);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Path>> futures = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            for (long from = 0; from < records; from += chunk) {
+                final long first = from;
+                final int count = (int) Math.min(chunk, records - from);
+                futures.add(pool.submit(() -> sortRun(channel, first, count, bufferBytes)));
+            }
+            List<Path> runs = new ArrayList<>();
+            for (Future<Path> future : futures) runs.add(future.get());
+            return runs;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating runs", e);
+        } catch (ExecutionException e) {
+            discardRuns(pool, futures);
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Stops the remaining tasks and deletes the runs already written
+    private static void discardRuns(ExecutorService pool, List<Future<Path>> futures) {
+        pool.shutdownNow();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Future<Path> future : futures) {
+            try {
+                if (future.isDone() && !future.isCancelled()) Files.deleteIfExists(future.get());
+            } catch (ExecutionException | InterruptedException | IOException ignored) {
+            }
+        }
+    }
+
+    // Reads 'count' records starting at record 'first', sorts them and writes a
+    // run through a buffer of 'bufferBytes'
+    private Path sortRun(FileChannel channel, long first, int count, int bufferBytes) throws IOException {
+        long[] values = new long[count];
+        for (int i = 0; i < count; ) {
+            int n = Math.min(count - i, MAX_WINDOW_BYTES / RECORD_BYTES);
+            channel.map(FileChannel.MapMode.READ_ONLY, (first + i) * RECORD_BYTES, (long) n * RECORD_BYTES)
+                    .asLongBuffer().get(values, i, n);
+            i += n;
+        }
+        Arrays.sort(values);
+
+        Path run = Files.createTempFile(tempDir, "run", ".bin");
+        try (RunWriter writer = new RunWriter(run, bufferBytes)) {
+            writer.writeAll(values);
+        }
+        return run;
+    }
+
+    // Merges every group of 'fanIn' runs into one, deleting the inputs
+    private List<Path> mergePass(List<Path> runs) throws IOException {
+        List<Path> merged = new ArrayList<>();
+        try {
+            for (int i = 0; i < runs.size(); i += fanIn) {
+                List<Path> group = runs.subList(i, Math.min(runs.size(), i + fanIn));
+                Path run = Files.createTempFile(tempDir, "run", ".bin");
+                merged.add(run);
+                merge(group, run);
+                deleteAll(group);
+            }
+            return merged;
+        } catch (IOException | RuntimeException e) {
+            deleteAll(merged);
+            throw e;
+        }
+    }
+
+    // Phase 2: k-way merge of the given runs into 'output'
+    private void merge(List<Path> runs, Path output) throws IOException {
+        final int k = runs.size();
+
+        // The budget is split into k read windows plus one write buffer
+        int window = (int) Math.min(MAX_WINDOW_BYTES, memoryBytes / (k + 1));
+        window -= window % RECORD_BYTES;
+
+        RunReader[] readers = new RunReader[k];
+        try (RunWriter writer = new RunWriter(output, window)) {
+            MinIndexedHeap<Long> heap = new MinIndexedHeap<>(heapDegree(k), k);
+            for (int i = 0; i < k; i++) {
+                readers[i] = new RunReader(runs.get(i), window);
+                if (readers[i].hasNext()) heap.insert(i, readers[i].next());
+            }
+
+            // Instead of poll and insert, the winning run's next value replaces
+            // its old one in place so each record costs one sink
+            while (!heap.isEmpty()) {
+                int run = heap.peekMinKeyIndex();
+                writer.write(heap.valueOf(run));
+                if (readers[run].hasNext()) heap.update(run, readers[run].next());
+                else heap.delete(run);
+            }
+        } finally {
+            for (RunReader reader : readers) if (reader != null) reader.close();
+        }
+    }
+
+    // For a small fan in a single level heap, i.e. a linear scan over the run
+    // heads, beats walking down a tree; for larger ones a 4-ary heap keeps
+    // the number of comparisons per record close to log2(k)
+    private static int heapDegree(int k) {
+        return k <= 8 ? Math.max(2, k) : 4;
+    }
+
+    private static void deleteAll(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // Sequentially reads a run through read only memory mapped windows
+    private static class RunReader implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final long size;
+        private final int windowBytes;
+        private long position;
+        private LongBuffer window = LongBuffer.allocate(0);
+
+        RunReader(Path run, int windowBytes) throws IOException {
+            this.channel = FileChannel.open(run, StandardOpenOption.READ);
+            this.size = channel.size();
+            this.windowBytes = windowBytes;
+        }
+
+        boolean hasNext() {
+            return window.hasRemaining() || position < size;
+        }
+
+        long next() throws IOException {
+            if (!window.hasRemaining()) {
+                long length = Math.min(windowBytes, size - position);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, length).asLongBuffer();
+                position += length;
+            }
+            return window.get();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // Writes records through a direct buffer which is drained to the channel when full
+    private static class RunWriter implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        RunWriter(Path run, int bufferBytes) throws IOException {
+            this.channel = FileChannel.open(run, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+        }
+
+        void write(long value) throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) drain();
+            buffer.putLong(value);
+        }
+
+        void writeAll(long[] values) throws IOException {
+            for (int i = 0; i < values.length; ) {
+                if (buffer.remaining() < RECORD_BYTES) drain();
+                int count = Math.min(values.length - i, buffer.remaining() / RECORD_BYTES);
+                buffer.asLongBuffer().put(values, i, count);
+                buffer.position(buffer.position() + RECORD_BYTES * count);
+                i += count;
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    // Sorts a file of random values with a budget much smaller than the file
+    public static void main(String[] args) throws IOException {
+        int n = 20_000_000;
+        Path dir = Files.createTempDirectory("external-sort");
+        Path input = dir.resolve("input.bin"), output = dir.resolve("output.bin");
+
+        Random random = new Random(0);
+        try (RunWriter writer = new RunWriter(input, 1 << 20)) {
+            for (int i = 0; i < n; i++) writer.write(random.nextLong());
+        }
+
+        ExternalSort sorter = new ExternalSort(16L << 20, 16, Runtime.getRuntime().availableProcessors(), dir);
+        System.out.println(sorter.sort(input, output));
+
+        try (RunReader reader = new RunReader(output, 1 << 20)) {
+            long previous = Long.MIN_VALUE, count = 0;
+            while (reader.hasNext()) {
+                long value = reader.next();
+                if (value < previous) throw new IllegalStateException("Output is not sorted at record " + count);
+                previous = value;
+                count++;
+            }
+            if (count != n) throw new IllegalStateException("Expected " + n + " records but found " + count);
+        }
+
+        Files.delete(input);
+        Files.delete(output);
+        Files.delete(dir);
+    }
+}
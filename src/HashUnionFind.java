@@ -0,0 +1,176 @@
+import java.util.Arrays;
+
+// A union find over arbitrary keys which does not need to know the number of
+// elements up front. Every key gets a dense index the first time it is seen,
+// through an open addressing table storing the keys in an Object[] and their
+// indices in an int[], so no Integer is ever boxed. The index based arrays
+// grow geometrically as new keys arrive.
+public class HashUnionFind<K> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Open addressing table (linear probing) from key to dense index.
+    // 'slotKeys' has a power of two length and a null slot is empty.
+    private Object[] slotKeys;
+    private int[] slotIndices;
+    private int mask;
+
+    // The number of elements of this union find
+    private int size;
+
+    // keys[i] is the key with dense index i
+    private Object[] keys;
+
+    // Track sizes of each of the components
+    private int[] sz;
+
+    // id[i] points to the parent of i, if id[i] = i then i is the root node
+    private int[] id;
+
+    // Tracks the number of components in the union find
+    private int numComponents;
+
+    public HashUnionFind() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public HashUnionFind(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Illegal capacity: " + expectedSize);
+        int capacity = Math.max(DEFAULT_CAPACITY, expectedSize);
+        keys = new Object[capacity];
+        sz = new int[capacity];
+        id = new int[capacity];
+        allocateTable(Integer.highestOneBit(2 * capacity - 1) << 1);
+    }
+
+    private void allocateTable(int tableCapacity) {
+        slotKeys = new Object[tableCapacity];
+        slotIndices = new int[tableCapacity];
+        mask = tableCapacity - 1;
+    }
+
+    private int slot(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // Returns the dense index of 'key' or -1 if it has not been seen yet
+    public int indexOf(K key) {
+        if (key == null) throw new IllegalArgumentException("key cannot be null");
+        for (int i = slot(key); slotKeys[i] != null; i = (i + 1) & mask)
+            if (slotKeys[i].equals(key)) return slotIndices[i];
+        return -1;
+    }
+
+    // Returns the dense index of 'key', adding it as a new singleton
+    // component if it has not been seen yet, amortized O(1)
+    public int add(K key) {
+        if (key == null) throw new IllegalArgumentException("key cannot be null");
+        int i = slot(key);
+        for (; slotKeys[i] != null; i = (i + 1) & mask)
+            if (slotKeys[i].equals(key)) return slotIndices[i];
+
+        if (size == keys.length) {
+            int capacity = 2 * size;
+            keys = Arrays.copyOf(keys, capacity);
+            sz = Arrays.copyOf(sz, capacity);
+            id = Arrays.copyOf(id, capacity);
+        }
+
+        int index = size++;
+        keys[index] = key;
+        sz[index] = 1;  // Each Component is size 1 at the beginning
+        id[index] = index;  // Each element is it's own root
+        numComponents++;
+
+        slotKeys[i] = key;
+        slotIndices[i] = index;
+        if (2 * size > slotKeys.length) rehash();
+        return index;
+    }
+
+    // Doubles the table keeping the load factor at most 1/2
+    private void rehash() {
+        allocateTable(2 * slotKeys.length);
+        for (int index = 0; index < size; index++) {
+            int i = slot(keys[index]);
+            while (slotKeys[i] != null) i = (i + 1) & mask;
+            slotKeys[i] = keys[index];
+            slotIndices[i] = index;
+        }
+    }
+
+    // Returns the key with the given dense index
+    @SuppressWarnings("unchecked")
+    public K keyAt(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index out of bounds; received: " + index);
+        return (K) keys[index];
+    }
+
+    // Find the dense index of the root of the component 'key' belongs to,
+    // adding the key first if needed. Takes amortized constant time
+    public int find(K key) {
+        return find(add(key));
+    }
+
+    // Find which component/set the element with dense index p belongs to
+    public int find(int p) {
+
+        // Find the root of component
+        int root = p;
+        while (root != id[root]) root = id[root];
+
+        // Compress the path
+        while (p != root) {
+            int next = id[p];
+            id[p] = root;
+            p = next;
+        }
+
+        return root;
+    }
+
+    // Are p and q in same component/set. Keys which have not been seen
+    // yet are only connected to themselves.
+    public boolean connected(K p, K q) {
+        int i = indexOf(p), j = indexOf(q);
+        if (i == -1 || j == -1) return p.equals(q);
+        return find(i) == find(j);
+    }
+
+    // Size of component p belongs to, 1 for a key which has not been seen yet
+    public int componentSize(K p) {
+        int i = indexOf(p);
+        return i == -1 ? 1 : sz[find(i)];
+    }
+
+    // Number of elements in this UnionFind/Disjoint Set
+    public int size() {
+        return size;
+    }
+
+    public int components() {
+        return numComponents;
+    }
+
+    // Unify components/sets containing elements p and q, adding them if needed
+    public void unify(K p, K q) {
+
+        int root1 = find(add(p));
+        int root2 = find(add(q));
+
+        if (root1 == root2) return;
+
+        if (sz[root1] < sz[root2]) {
+            sz[root2] += sz[root1];
+            id[root1] = root2;
+        } else {
+            sz[root1] += sz[root2];
+            id[root2] = root1;
+        }
+
+        // Since the roots were different, unification will decrease
+        // component number by 1
+        numComponents--;
+    }
+}
@@ -97,6 +97,75 @@ public class MinIndexedHeap <T extends Comparable<T>>{
         swim(sz++);
     }
 
+    // Inserts every (keys[j], values[j]) pair. Large batches are appended and
+    // the whole heap is rebuilt bottom up in O(n + k) instead of swimming
+    // every new key up in O(klog(n + k)).
+    public void insertAll(int[] keys, T[] values) {
+        if (keys == null || values == null || keys.length != values.length)
+            throw new IllegalArgumentException("keys and values must be non null and of equal length");
+
+        // Claim the positions first so that duplicates inside the batch are
+        // caught too. Every key is checked before its claim is written, and
+        // all earlier claims are undone if the batch turns out to be invalid,
+        // so a rejected batch leaves the heap untouched.
+        final int k = keys.length;
+        for (int j = 0; j < k; j++) {
+            int ki = keys[j];
+            if (ki < 0 || ki >= N || pm[ki] != -1 || values[j] == null) {
+                for (int l = 0; l < j; l++) pm[keys[l]] = -1;
+                keyInBoundsOrThrow(ki);
+                valueNotNullOrThrow(values[j]);
+                throw new IllegalArgumentException("index already exists; received: " + ki);
+            }
+            pm[ki] = sz + j;
+        }
+
+        if (!isLargeBatch(k)) {
+            for (int j = 0; j < k; j++) pm[keys[j]] = -1;
+            for (int j = 0; j < k; j++) insert(keys[j], values[j]);
+            return;
+        }
+
+        for (int j = 0; j < k; j++) {
+            im[sz + j] = keys[j];
+            this.values[keys[j]] = values[j];
+        }
+        sz += k;
+        heapify();
+    }
+
+    // Changes the value of every keys[j] to values[j]. Large batches assign
+    // all the values first and then restore the heap with a single bottom up
+    // sink pass in O(n + k) instead of k separate sink/swim calls.
+    public void updateAll(int[] keys, T[] values) {
+        if (keys == null || values == null || keys.length != values.length)
+            throw new IllegalArgumentException("keys and values must be non null and of equal length");
+
+        // Validate the whole batch first so a bad entry leaves the heap untouched
+        final int k = keys.length;
+        for (int j = 0; j < k; j++) keyExistsAndValueNotNullOrThrow(keys[j], values[j]);
+
+        if (!isLargeBatch(k)) {
+            for (int j = 0; j < k; j++) update(keys[j], values[j]);
+            return;
+        }
+
+        for (int j = 0; j < k; j++) this.values[keys[j]] = values[j];
+        heapify();
+    }
+
+    // A batch of k operations is large when k*log(n) exceeds n, at which
+    // point rebuilding the heap is cheaper than fixing it element by element
+    private boolean isLargeBatch(int k) {
+        int n = sz + k;
+        return (long) k * (32 - Integer.numberOfLeadingZeros(n)) >= n;
+    }
+
+    // Floyd's bottom up heap construction, sinks every node with children, O(n)
+    private void heapify() {
+        for (int i = (sz - 2) / D; i >= 0; i--) sink(i);
+    }
+
     @SuppressWarnings("unchecked")
     public T valueOf(int ki) {
         keyExistsOrThrow(ki);
@@ -225,9 +294,66 @@ public class MinIndexedHeap <T extends Comparable<T>>{
     private boolean isMinHeap(int i) {
         int from = child[i], to = min(sz, from + D);
         for(int j = from; j < to; j++) {
-            if (!less(i,j)) return false;
+            if (less(j, i)) return false;
             if (!isMinHeap(j)) return false;
         }
         return true;
     }
+
+    // Checks that batches rejected part way through leave the heap untouched
+    private static void checkRejectedBatch() {
+        MinIndexedHeap<Integer> heap = new MinIndexedHeap<>(2, 10);
+        try {
+            heap.insertAll(new int[] {0, 1, 2, 3, 4, 5, 6, 99}, new Integer[] {7, 6, 5, 4, 3, 2, 1, 0});
+            throw new IllegalStateException("Out of range key was accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+        for (int ki = 0; ki < 10; ki++)
+            if (heap.contains(ki)) throw new IllegalStateException("Rejected batch left key " + ki + " behind");
+        if (heap.size() != 0) throw new IllegalStateException("Rejected batch changed the size");
+        heap.insert(0, 1);
+        heap.insert(1, 2);
+
+        try {
+            heap.updateAll(new int[] {0, 1}, new Integer[] {100, null});
+            throw new IllegalStateException("Null value was accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+        if (heap.valueOf(0) != 1) throw new IllegalStateException("Rejected batch updated key 0");
+    }
+
+    // Benchmark of the batch operations against element by element loading
+    public static void main(String[] args) {
+        checkRejectedBatch();
+
+        final int n = 2_000_000;
+        java.util.Random random = new java.util.Random(0);
+        int[] keys = new int[n];
+        Integer[] values = new Integer[n], newValues = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = i;
+            values[i] = random.nextInt();
+            newValues[i] = random.nextInt();
+        }
+
+        for (int round = 0; round < 3; round++) {
+            MinIndexedHeap<Integer> one = new MinIndexedHeap<>(4, n);
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) one.insert(keys[i], values[i]);
+            long inserted = System.nanoTime();
+            for (int i = 0; i < n; i++) one.update(keys[i], newValues[i]);
+            long updated = System.nanoTime();
+
+            MinIndexedHeap<Integer> batch = new MinIndexedHeap<>(4, n);
+            long batchStart = System.nanoTime();
+            batch.insertAll(keys, values);
+            long batchInserted = System.nanoTime();
+            batch.updateAll(keys, newValues);
+            long batchUpdated = System.nanoTime();
+
+            System.out.printf("insert %.0fms vs insertAll %.0fms, update %.0fms vs updateAll %.0fms%n",
+                    (inserted - start) / 1e6, (batchInserted - batchStart) / 1e6,
+                    (updated - inserted) / 1e6, (batchUpdated - batchInserted) / 1e6);
+        }
+    }
 }
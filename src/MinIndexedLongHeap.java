@@ -0,0 +1,221 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static java.lang.Math.*;
+
+// A D-ary indexed min heap like MinIndexedHeap but with primitive 'long'
+// priorities. There is no Object[] of boxed values and no compareTo, and the
+// child/parent positions are computed instead of looked up in two extra
+// int[N] tables (with shifts when D is a power of two), so the heap only
+// needs pm, im and values.
+public class MinIndexedLongHeap {
+
+    // Current number of elements in th heap
+    private int sz;
+
+    // Maximum number of elements in the heap
+    private final int N;
+
+    // The degree of every node in the heap
+    private final int D;
+
+    // log2(D) when D is a power of two, -1 otherwise
+    private final int shift;
+
+    // The Position Map (pm) maps Key Indexes (ki) to where the position of that
+    // key is presented in the priority queue int the domain [0, sz)
+    public final int[] pm;
+
+    // The Inverse Map (im) stores the indexes of the keys in range
+    // [0, sz) which make up the priority queue. It should be noted that
+    // 'im' and 'pm' are inverse of each other, so: pm[im[i]] = im[pm[i]] = i
+    public final int[] im;
+
+    // The values associated with the keys. It is very important to note
+    // that this array is indexed by the key indexes (aka 'ki')
+    public final long[] values;
+
+    // Initializes D-ary heap with a maximum capacity of maxSize.
+    public MinIndexedLongHeap(int degree, int maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize <= 0");
+
+        D = max(2, degree);
+        N = max(D + 1, maxSize);
+        shift = Integer.bitCount(D) == 1 ? Integer.numberOfTrailingZeros(D) : -1;
+
+        im = new int[N];
+        pm = new int[N];
+        values = new long[N];
+
+        for (int i = 0; i < N; i++) pm[i] = im[i] = -1;
+    }
+
+    public int size() {
+        return sz;
+    }
+
+    public boolean isEmpty() {
+        return sz == 0;
+    }
+
+    public boolean contains(int ki) {
+        keyInBoundsOrThrow(ki);
+        return pm[ki] != -1;
+    }
+
+    public int peekMinKeyIndex() {
+        isNotEmptyOrThrow();
+        return im[0];
+    }
+
+    public int pollMinKeyIndex() {
+        int minki = peekMinKeyIndex();
+        delete(minki);
+        return minki;
+    }
+
+    public long peekMinValue() {
+        isNotEmptyOrThrow();
+        return values[im[0]];
+    }
+
+    public long pollMinValue() {
+        long minValue = peekMinValue();
+        delete(peekMinKeyIndex());
+        return minValue;
+    }
+
+    public void insert(int ki, long value) {
+        if (contains(ki))
+            throw new IllegalArgumentException("index already exists; received: " + ki);
+        pm[ki] = sz;
+        im[sz] = ki;
+        values[ki] = value;
+        swim(sz++);
+    }
+
+    public long valueOf(int ki) {
+        keyExistsOrThrow(ki);
+        return values[ki];
+    }
+
+    public long delete(int ki) {
+        keyExistsOrThrow(ki);
+        final int i = pm[ki];
+        swap(i, --sz);
+        sink(i);
+        swim(i);
+        long value = values[ki];
+        pm[ki] = -1;
+        im[sz] = -1;
+        return value;
+    }
+
+    public long update(int ki, long value) {
+        keyExistsOrThrow(ki);
+        final int i = pm[ki];
+        long oldValue = values[ki];
+        values[ki] = value;
+        sink(i);
+        swim(i);
+        return oldValue;
+    }
+
+    // Strictly decreases the value associated with 'ki' to 'value'
+    public void decrease(int ki, long value) {
+        keyExistsOrThrow(ki);
+        if (value < values[ki]) {
+            values[ki] = value;
+            swim(pm[ki]);
+        }
+    }
+
+    // Helper functions
+
+    private int parent(int i) {
+        return shift >= 0 ? (i - 1) >> shift : (i - 1) / D;
+    }
+
+    private int child(int i) {
+        return shift >= 0 ? (i << shift) + 1 : i * D + 1;
+    }
+
+    private void sink(int i) {
+        for (int j = minChild(i); j != -1; ) {
+            swap(i, j);
+            i = j;
+            j = minChild(i);
+        }
+    }
+
+    private void swim(int i) {
+        while (i > 0 && less(i, parent(i))) {
+            int p = parent(i);
+            swap(i, p);
+            i = p;
+        }
+    }
+
+    // From the parent node at index i find the minimum child below it
+    private int minChild(int i) {
+        int index = -1, from = child(i), to = min(sz, from + D);
+        for (int j = from; j < to; j++)
+            if (less(j, i))
+                index = i = j;
+        return index;
+    }
+
+    private void swap(int i, int j) {
+        pm[im[j]] = i;
+        pm[im[i]] = j;
+        int tmp = im[i];
+        im[i] = im[j];
+        im[j] = tmp;
+    }
+
+    // Tests if the value of node i < node j
+    private boolean less(int i, int j) {
+        return values[im[i]] < values[im[j]];
+    }
+
+    @Override
+    public String toString() {
+        List<Integer> lst = new ArrayList<>(sz);
+        for (int i = 0; i < sz; i++) lst.add(im[i]);
+        return lst.toString();
+    }
+
+    // Helper functions to make the code more readable.
+
+    private void isNotEmptyOrThrow() {
+        if (isEmpty()) throw new NoSuchElementException("Priority queue underflow");
+    }
+
+    private void keyExistsOrThrow(int ki) {
+        if (!contains(ki))
+            throw new NoSuchElementException("Index does not exist; received: " + ki);
+    }
+
+    private void keyInBoundsOrThrow(int ki) {
+        if (ki < 0 || ki >= N)
+            throw new IllegalArgumentException("Key out of bounds; received: " + ki);
+    }
+
+    // Test functions
+
+    // Recursively check if this heap is a min heap. This method is used
+    // for testing purposes to validate the heap invariant.
+    public boolean isMinHeap() {
+        return isMinHeap(0);
+    }
+
+    private boolean isMinHeap(int i) {
+        int from = child(i), to = min(sz, from + D);
+        for (int j = from; j < to; j++) {
+            if (less(j, i)) return false;
+            if (!isMinHeap(j)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,260 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+// Computes a minimum spanning forest of a weighted undirected graph with the
+// filter Kruskal algorithm.
+//
+// Edges are kept as two parallel primitive arrays: the weight turned into a
+// 'long' whose signed order matches the order of the doubles, and the edge
+// index. Instead of sorting all the edges up front the edges are partitioned
+// around a pivot weight like in quicksort. The light half is processed first,
+// after which every heavy edge whose endpoints are already connected is
+// filtered out (in parallel) before the heavy half is processed. Small
+// partitions are sorted with a parallel quicksort and scanned by Kruskal.
+// On dense graphs most heavy edges never get sorted at all.
+public class MinimumSpanningForest {
+
+    // Partitions with at most this many edges are sorted and scanned directly
+    private static final int BASE_CASE = 1 << 14;
+
+    // Sort partitions larger than this are sorted in parallel
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+    // Filter steps with at least this many edges run in parallel
+    private static final int PARALLEL_FILTER_THRESHOLD = 1 << 12;
+
+    public static class Result {
+
+        // The sum of the weights of the chosen edges
+        public final double totalWeight;
+
+        // The indices of the chosen edges in increasing weight order
+        public final int[] edges;
+
+        private Result(double totalWeight, int[] edges) {
+            this.totalWeight = totalWeight;
+            this.edges = edges;
+        }
+    }
+
+    private final int[] from, to;
+    private final double[] weights;
+
+    // Sort keys and edge indices of the edges still under consideration
+    private final long[] keys;
+    private final int[] ids;
+
+    private final ConcurrentUnionFind uf;
+    private final ForkJoinPool pool;
+    private final Random random = new Random(0x5EED);
+
+    private final int[] chosen;
+    private int chosenCount;
+    private double totalWeight;
+
+    private MinimumSpanningForest(int n, int[] from, int[] to, double[] weights, ForkJoinPool pool) {
+        this.from = from;
+        this.to = to;
+        this.weights = weights;
+        this.pool = pool;
+
+        int m = weights.length;
+        keys = new long[m];
+        ids = new int[m];
+        for (int i = 0; i < m; i++) {
+            if (Double.isNaN(weights[i])) throw new IllegalArgumentException("Edge " + i + " has a NaN weight");
+            keys[i] = sortableBits(weights[i]);
+            ids[i] = i;
+        }
+
+        uf = new ConcurrentUnionFind(n);
+        chosen = new int[Math.max(0, n - 1)];
+    }
+
+    // Computes a minimum spanning forest of the graph with vertices [0, n) and
+    // edges (from[i], to[i]) of weight weights[i].
+    public static Result compute(int n, int[] from, int[] to, double[] weights) {
+        return compute(n, from, to, weights, ForkJoinPool.commonPool());
+    }
+
+    public static Result compute(int n, int[] from, int[] to, double[] weights, ForkJoinPool pool) {
+        if (from == null || to == null || weights == null
+                || from.length != to.length || from.length != weights.length)
+            throw new IllegalArgumentException("from, to and weights must be non null and of equal length");
+        if (n < 0) throw new IllegalArgumentException("n < 0 is not allowed");
+
+        // An empty graph has an empty forest, and no edge can be valid in it
+        if (n == 0) {
+            if (from.length > 0) throw new IllegalArgumentException("Edges given for a graph without vertices");
+            return new Result(0, new int[0]);
+        }
+
+        MinimumSpanningForest msf = new MinimumSpanningForest(n, from, to, weights, pool);
+        msf.filterKruskal(0, weights.length);
+        return new Result(msf.totalWeight, Arrays.copyOf(msf.chosen, msf.chosenCount));
+    }
+
+    // Maps a double to a long with the same ordering under signed comparison
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value + 0.0); // + 0.0 turns -0.0 into 0.0
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private boolean forestComplete() {
+        return chosenCount == chosen.length;
+    }
+
+    // Processes the edges [lo, hi) which are all heavier than any edge processed so far
+    private void filterKruskal(int lo, int hi) {
+        if (hi - lo <= BASE_CASE) {
+            kruskal(lo, hi);
+            return;
+        }
+
+        long pivot = keys[lo + random.nextInt(hi - lo)];
+        int mid = partition(lo, hi, pivot, false);
+
+        // The pivot was the smallest key, split off the edges equal to it instead
+        if (mid == lo) mid = partition(lo, hi, pivot, true);
+
+        // Every key is equal to the pivot, nothing to gain from splitting
+        if (mid == hi) {
+            kruskal(lo, hi);
+            return;
+        }
+
+        filterKruskal(lo, mid);
+        if (forestComplete()) return;
+        filterKruskal(mid, filter(mid, hi));
+    }
+
+    // Reorders [lo, hi) so that the keys < pivot (<= pivot if 'inclusive')
+    // come first and returns the end of that part
+    private int partition(int lo, int hi, long pivot, boolean inclusive) {
+        int i = lo, j = hi - 1;
+        while (true) {
+            while (i <= j && (keys[i] < pivot || (inclusive && keys[i] == pivot))) i++;
+            while (i <= j && !(keys[j] < pivot || (inclusive && keys[j] == pivot))) j--;
+            if (i >= j) return i;
+            swap(keys, ids, i++, j--);
+        }
+    }
+
+    // Removes the edges of [lo, hi) whose endpoints are already connected and
+    // returns the new end of the range. The union find is only read here so
+    // the connectivity checks can run in parallel.
+    private int filter(int lo, int hi) {
+        boolean[] keep = new boolean[hi - lo];
+        if (hi - lo >= PARALLEL_FILTER_THRESHOLD) {
+            pool.submit(() -> IntStream.range(lo, hi).parallel()
+                    .forEach(i -> keep[i - lo] = !uf.connected(from[ids[i]], to[ids[i]]))).join();
+        } else {
+            for (int i = lo; i < hi; i++) keep[i - lo] = !uf.connected(from[ids[i]], to[ids[i]]);
+        }
+
+        int end = lo;
+        for (int i = lo; i < hi; i++) {
+            if (!keep[i - lo]) continue;
+            keys[end] = keys[i];
+            ids[end] = ids[i];
+            end++;
+        }
+        return end;
+    }
+
+    // Plain Kruskal on [lo, hi): sort by weight and take every edge joining two components
+    private void kruskal(int lo, int hi) {
+        pool.invoke(new PairSort(keys, ids, lo, hi));
+        for (int i = lo; i < hi && !forestComplete(); i++) {
+            int edge = ids[i];
+            if (uf.connected(from[edge], to[edge])) continue;
+            uf.unify(from[edge], to[edge]);
+            chosen[chosenCount++] = edge;
+            totalWeight += weights[edge];
+        }
+    }
+
+    private static void swap(long[] keys, int[] ids, int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+
+    // Quicksort of the parallel arrays keys/ids on [lo, hi) by key, forking
+    // the two halves of large partitions.
+    @SuppressWarnings("serial")
+    private static class PairSort extends RecursiveAction {
+
+        private static final int INSERTION_SORT_THRESHOLD = 32;
+
+        private final long[] keys;
+        private final int[] ids;
+        private final int lo, hi;
+
+        PairSort(long[] keys, int[] ids, int lo, int hi) {
+            this.keys = keys;
+            this.ids = ids;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            sort(lo, hi);
+        }
+
+        private void sort(int lo, int hi) {
+            while (hi - lo > INSERTION_SORT_THRESHOLD) {
+
+                // Median of three pivot
+                int m = (lo + hi) >>> 1;
+                long a = keys[lo], b = keys[m], c = keys[hi - 1];
+                long pivot = a < b ? (b < c ? b : Math.max(a, c)) : (a < c ? a : Math.max(b, c));
+
+                // Three way partition: [lo, lt) < pivot, [lt, gt) == pivot, [gt, hi) > pivot
+                int lt = lo, gt = hi, i = lo;
+                while (i < gt) {
+                    if (keys[i] < pivot) swap(keys, ids, lt++, i++);
+                    else if (keys[i] > pivot) swap(keys, ids, i, --gt);
+                    else i++;
+                }
+
+                if (hi - lo > PARALLEL_SORT_THRESHOLD) {
+                    invokeAll(new PairSort(keys, ids, lo, lt), new PairSort(keys, ids, gt, hi));
+                    return;
+                }
+
+                // Recurse into the smaller part and loop on the larger one
+                if (lt - lo < hi - gt) {
+                    sort(lo, lt);
+                    lo = gt;
+                } else {
+                    sort(gt, hi);
+                    hi = lt;
+                }
+            }
+            insertionSort(lo, hi);
+        }
+
+        private void insertionSort(int lo, int hi) {
+            for (int i = lo + 1; i < hi; i++) {
+                long key = keys[i];
+                int id = ids[i];
+                int j = i - 1;
+                while (j >= lo && keys[j] > key) {
+                    keys[j + 1] = keys[j];
+                    ids[j + 1] = ids[j];
+                    j--;
+                }
+                keys[j + 1] = key;
+                ids[j + 1] = id;
+            }
+        }
+    }
+}
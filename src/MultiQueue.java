@@ -0,0 +1,207 @@
+import hashtable.FenwickTreeRangeQueryPointUpdate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// A concurrent relaxed min priority queue (MultiQueue). Instead of one heap
+// behind one lock it keeps c*P PQueues, each with its own lock:
+//
+//  - add puts the element into a random sub queue whose lock is free.
+//  - poll looks at the minima of two random sub queues and polls the
+//    smaller one, retrying with other queues if its lock is taken.
+//
+// poll therefore does not always return the global minimum, but the
+// expected rank of the returned element is O(c*P) while throughput scales
+// with the number of threads instead of being capped by a single lock.
+// rankError() can be used to measure the quality on a real workload.
+public class MultiQueue <T extends Comparable<T>> {
+
+    private static final int DEFAULT_QUEUES_PER_THREAD = 2;
+
+    private final PQueue<T>[] queues;
+    private final ReentrantLock[] locks;
+
+    // A copy of every sub queue's minimum (null when empty), readable without
+    // taking the lock so that poll can compare two queues cheaply
+    private final AtomicReferenceArray<T> minima;
+
+    // Create a MultiQueue with two sub queues per available processor
+    public MultiQueue() {
+        this(DEFAULT_QUEUES_PER_THREAD * Runtime.getRuntime().availableProcessors());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public MultiQueue(int numQueues) {
+        if (numQueues < 2) throw new IllegalArgumentException("numQueues < 2");
+        queues = (PQueue<T>[]) new PQueue[numQueues];
+        locks = new ReentrantLock[numQueues];
+        minima = new AtomicReferenceArray<>(numQueues);
+        for (int i = 0; i < numQueues; i++) {
+            queues[i] = new PQueue<>();
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Adds an element to a random sub queue, the element must not be null
+    public void add(T elem) {
+        if (elem == null) throw new IllegalArgumentException();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            int i = random.nextInt(queues.length);
+            if (!locks[i].tryLock()) continue;
+            try {
+                queues[i].add(elem);
+                publishMin(i);
+                return;
+            } finally {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    // Removes and returns the smaller of the minima of two random sub
+    // queues. Returns null only if every sub queue was seen empty.
+    public T poll() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int attempts = 0;
+        while (true) {
+            int i = random.nextInt(queues.length);
+            int j = random.nextInt(queues.length);
+            T a = minima.get(i), b = minima.get(j);
+
+            if (a == null && b == null) {
+                // The sampled queues are empty, fall back to a full scan once in a while
+                if (++attempts >= queues.length) return pollAnyNonEmpty();
+                continue;
+            }
+
+            int k = b == null || (a != null && a.compareTo(b) <= 0) ? i : j;
+            if (!locks[k].tryLock()) continue;
+            try {
+                T elem = queues[k].poll();
+                publishMin(k);
+                if (elem != null) return elem;
+            } finally {
+                locks[k].unlock();
+            }
+        }
+    }
+
+    // Scans every sub queue in order, used when random sampling keeps hitting empty queues
+    private T pollAnyNonEmpty() {
+        for (int k = 0; k < queues.length; k++) {
+            if (minima.get(k) == null) continue;
+            locks[k].lock();
+            try {
+                T elem = queues[k].poll();
+                publishMin(k);
+                if (elem != null) return elem;
+            } finally {
+                locks[k].unlock();
+            }
+        }
+        return null;
+    }
+
+    // Must be called with the lock of queue i held
+    private void publishMin(int i) {
+        minima.set(i, queues[i].peek());
+    }
+
+    // Returns true if every sub queue is empty. Only exact when no other thread
+    // is adding or polling at the same time.
+    public boolean isEmpty() {
+        for (int i = 0; i < queues.length; i++) if (minima.get(i) != null) return false;
+        return true;
+    }
+
+    // Returns the number of elements. Only exact when no other thread
+    // is adding or polling at the same time.
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < queues.length; i++) {
+            locks[i].lock();
+            try {
+                size += queues[i].size();
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return size;
+    }
+
+    // Quality metric: drains 'queue' and returns the average rank error, meaning
+    // how many smaller elements were still inside the queue when each element
+    // was polled (0 for an exact priority queue). Takes O(nlog(n)) time.
+    public static <T extends Comparable<T>> double rankError(MultiQueue<T> queue) {
+        PQueue<T> exact = new PQueue<>();
+        List<T> polled = new ArrayList<>();
+        for (T elem = queue.poll(); elem != null; elem = queue.poll()) polled.add(elem);
+        exact.addAll(polled);
+
+        // Count, for every poll, the number of remaining elements strictly smaller
+        // than it with a Fenwick tree over the ranks of the elements
+        List<T> sorted = new ArrayList<>(polled.size());
+        while (!exact.isEmpty()) sorted.add(exact.poll());
+        FenwickTreeRangeQueryPointUpdate remaining = new FenwickTreeRangeQueryPointUpdate(sorted.size());
+        for (int r = 1; r <= sorted.size(); r++) remaining.add(r, 1);
+
+        long totalError = 0;
+        for (T elem : polled) {
+            int rank = lowerBound(sorted, elem) + 1;
+            totalError += rank > 1 ? remaining.sum(1, rank - 1) : 0;
+            remaining.add(firstRemaining(remaining, rank), -1);
+        }
+        return polled.isEmpty() ? 0 : (double) totalError / polled.size();
+    }
+
+    // Index of the first element >= elem in the sorted list
+    private static <T extends Comparable<T>> int lowerBound(List<T> sorted, T elem) {
+        int lo = 0, hi = sorted.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted.get(mid).compareTo(elem) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Among equal elements starting at 'rank' the first one which is still remaining
+    private static int firstRemaining(FenwickTreeRangeQueryPointUpdate remaining, int rank) {
+        long before = rank > 1 ? remaining.sum(1, rank - 1) : 0;
+        return remaining.lowerBound(before + 1);
+    }
+
+    // Scaling benchmark: every thread alternates between add and poll on a
+    // shared queue, prints the throughput for 1..P threads and the rank error.
+    public static void main(String[] args) throws InterruptedException {
+        final int opsPerThread = 1_000_000;
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        for (int threads = 1; threads <= processors; threads *= 2) {
+            MultiQueue<Integer> queue = new MultiQueue<>(DEFAULT_QUEUES_PER_THREAD * threads);
+            for (int i = 0; i < 100_000; i++) queue.add(ThreadLocalRandom.current().nextInt());
+
+            Thread[] workers = new Thread[threads];
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                workers[t] = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < opsPerThread; i++) {
+                        if ((i & 1) == 0) queue.add(random.nextInt());
+                        else queue.poll();
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers) worker.join();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("threads=%d  %.1f Mops/s  rank error=%.2f%n",
+                    threads, threads * opsPerThread / seconds / 1e6, rankError(queue));
+        }
+    }
+}
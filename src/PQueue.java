@@ -1,5 +1,5 @@
 /**
- * A min priority queue implementation using  a binary heap
+ * A min priority queue implementation using a D-ary heap
  * **/
 
 
@@ -8,6 +8,13 @@ import java.util.*;
 
 public class PQueue <T extends Comparable<T>> {
 
+    // A 4-ary heap is half as deep as a binary heap and the children
+    // of a node usually share a cache line, which makes sink cheaper
+    private static final int DEFAULT_DEGREE = 4;
+
+    // The degree of every node in the heap
+    private final int D;
+
     // The number of elements curently inside the heap
     private int heapSize = 0;
 
@@ -30,12 +37,19 @@ public class PQueue <T extends Comparable<T>> {
 
     // Construct a priority queue with an initial capacity
     public PQueue(int sz) {
+        this(DEFAULT_DEGREE, sz);
+    }
+
+    // Construct a D-ary priority queue with an initial capacity
+    public PQueue(int degree, int sz) {
+        D = Math.max(2, degree);
         heap = new ArrayList<>(sz);
     }
 
     // Construct a priority queue using heapify in O(n) time
     public PQueue (T[] elems) {
 
+        D = DEFAULT_DEGREE;
         heapSize = heapCapacity = elems.length;
         heap = new ArrayList<T>(heapCapacity);
 
@@ -45,15 +59,19 @@ public class PQueue <T extends Comparable<T>> {
             heap.add(elems[i]);
         }
 
-        // Heapify process, O(n)
-        for(int i = Math.max(0, (heapSize/2)-1); i >= 0; i--)
-            sink(i);
+        heapify();
     }
 
-    // Priority queue construction, O(nlog(n))
+    // Priority queue construction using heapify in O(n) time
     public PQueue (Collection <T> elems) {
         this(elems.size());
-        for(T elem: elems) add(elem);
+        addAll(elems);
+    }
+
+    // Heapify process, sinks every node which has children bottom up, O(n)
+    private void heapify() {
+        for(int i = (heapSize - 2) / D; i >= 0; i--)
+            sink(i);
     }
 
     // Returns true/false depending on if the priority queue is empty
@@ -121,6 +139,39 @@ public class PQueue <T extends Comparable<T>> {
         heapSize++;
     }
 
+    // Adds all the elements to the priority queue. When the batch is large
+    // compared to the heap the elements are appended and the whole heap is
+    // rebuilt with Floyd's bottom up heapify in O(n + k) instead of swimming
+    // every element up in O(klog(n + k)).
+    public void addAll(Collection <T> elems) {
+
+        // Reject the whole batch before touching the heap, otherwise a null
+        // part way through would leave appended elements that were never heapified
+        for(T elem: elems)
+            if(elem == null) throw new IllegalArgumentException();
+
+        int k = elems.size();
+        int n = heapSize + k;
+        if ((long) k * (32 - Integer.numberOfLeadingZeros(n)) < n) {
+            for(T elem: elems) add(elem);
+            return;
+        }
+
+        for(T elem: elems) {
+            if(heapSize < heapCapacity)
+                heap.set(heapSize, elem);
+            else {
+                heap.add(elem);
+                heapCapacity++;
+            }
+
+            mapAdd(elem, heapSize);
+            heapSize++;
+        }
+
+        heapify();
+    }
+
     // Test if the value of node i <= node j
     // This method assumes that i & j are valid indecies, O(1)
     private boolean less(int i, int j) {
@@ -135,7 +186,7 @@ public class PQueue <T extends Comparable<T>> {
     private void swim(int k) {
 
         // Grab the index of the next parent node of k
-        int parent = (k-1) / 2;
+        int parent = (k-1) / D;
 
         // Keep swimming until we have not reached the
         // root and while we are less than our parent
@@ -146,7 +197,7 @@ public class PQueue <T extends Comparable<T>> {
             k = parent;
 
             // Grab the index of the next parent
-            parent = (k-1) / 2;
+            parent = (k-1) / D;
         }
     }
 
@@ -154,16 +205,16 @@ public class PQueue <T extends Comparable<T>> {
     private void sink(int k) {
 
         while(true) {
-            int left = 2 * k + 1;
-            int right = 2 * k + 2;
-            int smallest = left; // Assume left is the smallest node of two children
+            int first = D * k + 1;
+            int last = Math.min(heapSize, first + D);
+            int smallest = first; // Assume the first child is the smallest
 
-            // Find which is smaller, left or right
-            // If right is smallest, set smallest to right
-            if (right < heapSize && less(right, smallest))
-                smallest = right;
+            // Find the smallest of the children
+            for(int child = first + 1; child < last; child++)
+                if (less(child, smallest))
+                    smallest = child;
 
-            if (left >= heapSize || less(k, smallest))
+            if (first >= heapSize || less(k, smallest))
                 break;
 
             swap(k, smallest);
@@ -179,7 +230,7 @@ public class PQueue <T extends Comparable<T>> {
 
         heap.set(i, j_elem);
         heap.set(j, i_elem);
-        mapSwap(i_elem, j_elem, j, i);
+        mapSwap(i_elem, j_elem, i, j);
     }
 
 
@@ -239,17 +290,17 @@ public class PQueue <T extends Comparable<T>> {
         // If we are outside the bounds of the heap, return true
         if (k >= heapSize) return true;
 
-        int left = k*2 +1;
-        int right = k*2 + 2;
+        int first = D * k + 1;
+        int last = Math.min(heapSize, first + D);
 
-        // Make sure that node k is less then both it's
-        // children if they exist
+        // Make sure that node k is less then all it's
+        // children if they exist and recurse on every child
+        // to make sure they are also valid heaps,
         // otherwise return false to indicate that the heap is invalid
-        if(left < heapSize && !less(k, left)) return false;
-        if(right < heapSize && !less(k, right)) return false;
+        for(int child = first; child < last; child++)
+            if(!less(k, child) || !isMinHeap(child)) return false;
 
-        // Recurse on both children to make sure they are also valid heaps
-        return isMinHeap(left) && isMinHeap(right);
+        return true;
     }
 
     // Add a node value and it's index to the map
@@ -301,5 +352,23 @@ public class PQueue <T extends Comparable<T>> {
         return heap.toString();
     }
 
+    // Checks that a batch containing a null leaves the queue untouched
+    public static void main(String[] args) {
+        PQueue<Integer> pq = new PQueue<>();
+        for (int i = 10; i < 20; i++) pq.add(i);
+
+        java.util.List<Integer> batch = new java.util.ArrayList<>();
+        for (int i = 0; i < 8; i++) batch.add(-5 + i);
+        batch.add(null);
+        batch.add(-10);
+        try {
+            pq.addAll(batch);
+            throw new IllegalStateException("Null element was accepted");
+        } catch (IllegalArgumentException expected) {
+        }
 
+        if (pq.size() != 10 || !pq.isMinHeap(0) || pq.peek() != 10 || pq.contains(-5))
+            throw new IllegalStateException("Rejected batch modified the queue: " + pq);
+        System.out.println(pq);
+    }
 }
@@ -0,0 +1,310 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+// A min pairing heap of (double key, int value) pairs.
+//
+//  - insert and meld are O(1)
+//  - decreaseKey is O(1) to cut the node plus an amortized sub logarithmic
+//    relink, which makes it a good fit for Dijkstra and event simulation
+//  - poll is O(log(n)) amortized using the standard two pass pairing
+//
+// Nodes are not objects: they are slots of parallel int/double arrays held by
+// a Pool, and freed slots are recycled, so a busy heap produces no garbage.
+// insert returns the slot as an int handle used by decreaseKey and delete.
+// Heaps which should be melded together must share the same Pool.
+public class PairingHeap {
+
+    // Array backed storage for the nodes of one or more pairing heaps
+    public static final class Pool {
+
+        private double[] keys;
+        private int[] values;
+
+        // child[x] is the leftmost child of x, next[x] its right sibling and
+        // prev[x] its left sibling or its parent when x is a leftmost child
+        private int[] child, next, prev;
+
+        // Number of slots ever handed out and the head of the free list (linked via 'next')
+        private int allocated, free = -1;
+
+        public Pool() {
+            this(16);
+        }
+
+        public Pool(int initialCapacity) {
+            int capacity = Math.max(1, initialCapacity);
+            keys = new double[capacity];
+            values = new int[capacity];
+            child = new int[capacity];
+            next = new int[capacity];
+            prev = new int[capacity];
+        }
+
+        private int allocate(double key, int value) {
+            int node;
+            if (free != -1) {
+                node = free;
+                free = next[node];
+            } else {
+                if (allocated == keys.length) grow();
+                node = allocated++;
+            }
+            keys[node] = key;
+            values[node] = value;
+            child[node] = next[node] = prev[node] = -1;
+            return node;
+        }
+
+        private void release(int node) {
+            next[node] = free;
+            free = node;
+        }
+
+        private void grow() {
+            int capacity = 2 * keys.length;
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+            child = Arrays.copyOf(child, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+    }
+
+    private final Pool pool;
+
+    private int root = -1;
+    private int size;
+
+    // Create a heap with its own pool
+    public PairingHeap() {
+        this(new Pool());
+    }
+
+    // Create a heap storing its nodes in 'pool'
+    public PairingHeap(Pool pool) {
+        if (pool == null) throw new IllegalArgumentException("pool cannot be null");
+        this.pool = pool;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Adds a pair and returns its handle, O(1)
+    public int insert(double key, int value) {
+        int node = pool.allocate(key, value);
+        root = root == -1 ? node : link(root, node);
+        size++;
+        return node;
+    }
+
+    // Returns the smallest key
+    public double peekKey() {
+        isNotEmptyOrThrow();
+        return pool.keys[root];
+    }
+
+    // Returns the value paired with the smallest key
+    public int peekValue() {
+        isNotEmptyOrThrow();
+        return pool.values[root];
+    }
+
+    // Returns the handle of the pair with the smallest key
+    public int peekHandle() {
+        isNotEmptyOrThrow();
+        return root;
+    }
+
+    // Returns the key of a handle which is still in the heap
+    public double keyOf(int handle) {
+        return pool.keys[handle];
+    }
+
+    // Returns the value of a handle which is still in the heap
+    public int valueOf(int handle) {
+        return pool.values[handle];
+    }
+
+    // Removes the pair with the smallest key and returns its value, O(log(n)) amortized.
+    // The handle of the removed pair becomes invalid.
+    public int poll() {
+        isNotEmptyOrThrow();
+        int node = root;
+        int value = pool.values[node];
+        root = mergePairs(pool.child[node]);
+        pool.release(node);
+        size--;
+        return value;
+    }
+
+    // Lowers the key of a handle which is still in the heap
+    public void decreaseKey(int handle, double key) {
+        if (key > pool.keys[handle])
+            throw new IllegalArgumentException("New key is larger than the current key; received: " + key);
+        pool.keys[handle] = key;
+        if (handle == root) return;
+        cut(handle);
+        root = link(root, handle);
+    }
+
+    // Removes a handle which is still in the heap, O(log(n)) amortized
+    public void delete(int handle) {
+        if (handle == root) {
+            poll();
+            return;
+        }
+        cut(handle);
+        int children = mergePairs(pool.child[handle]);
+        if (children != -1) root = link(root, children);
+        pool.release(handle);
+        size--;
+    }
+
+    // Moves every pair of 'other' into this heap in O(1), leaving 'other' empty
+    public void meld(PairingHeap other) {
+        if (other.pool != pool) throw new IllegalArgumentException("Only heaps sharing a pool can be melded");
+        if (other == this || other.root == -1) return;
+        root = root == -1 ? other.root : link(root, other.root);
+        size += other.size;
+        other.root = -1;
+        other.size = 0;
+    }
+
+    // Links two roots and returns the new root, the larger one becomes
+    // the leftmost child of the smaller one, O(1)
+    private int link(int a, int b) {
+        if (pool.keys[b] < pool.keys[a]) {
+            int tmp = a;
+            a = b;
+            b = tmp;
+        }
+        int first = pool.child[a];
+        pool.next[b] = first;
+        if (first != -1) pool.prev[first] = b;
+        pool.prev[b] = a;
+        pool.child[a] = b;
+        return a;
+    }
+
+    // Detaches the subtree rooted at 'node' from its parent and siblings
+    private void cut(int node) {
+        int left = pool.prev[node], right = pool.next[node];
+        if (pool.child[left] == node) pool.child[left] = right;
+        else pool.next[left] = right;
+        if (right != -1) pool.prev[right] = left;
+        pool.prev[node] = pool.next[node] = -1;
+    }
+
+    // Standard two pass pairing of a list of siblings: link them in pairs
+    // from left to right, then link the results from right to left.
+    // Returns the new root or -1 if the list was empty.
+    private int mergePairs(int first) {
+        if (first == -1) return -1;
+
+        // First pass, the linked pairs are pushed on a stack threaded through 'next'
+        int stack = -1;
+        int a = first;
+        while (a != -1) {
+            int b = pool.next[a];
+            int rest = b == -1 ? -1 : pool.next[b];
+            pool.prev[a] = pool.next[a] = -1;
+            if (b != -1) {
+                pool.prev[b] = pool.next[b] = -1;
+                a = link(a, b);
+            }
+            pool.next[a] = stack;
+            stack = a;
+            a = rest;
+        }
+
+        // Second pass, pop from the right and link into the result
+        int result = stack;
+        stack = pool.next[result];
+        pool.next[result] = -1;
+        while (stack != -1) {
+            int tree = stack;
+            stack = pool.next[tree];
+            pool.next[tree] = -1;
+            result = link(result, tree);
+        }
+        return result;
+    }
+
+    private void isNotEmptyOrThrow() {
+        if (isEmpty()) throw new NoSuchElementException("Priority queue underflow");
+    }
+
+    // Dijkstra benchmark against MinIndexedBinaryHeap on a random sparse graph
+    public static void main(String[] args) {
+        final int n = 1_000_000, degree = 8;
+        Random random = new Random(0);
+        int[] targets = new int[n * degree];
+        double[] weights = new double[n * degree];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = random.nextInt(n);
+            weights[i] = random.nextDouble();
+        }
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            double[] dist1 = dijkstraPairing(n, degree, targets, weights);
+            long mid = System.nanoTime();
+            double[] dist2 = dijkstraIndexed(n, degree, targets, weights);
+            long end = System.nanoTime();
+            if (!Arrays.equals(dist1, dist2)) throw new IllegalStateException("Distances differ");
+            System.out.printf("PairingHeap %.0fms, MinIndexedBinaryHeap %.0fms%n", (mid - start) / 1e6, (end - mid) / 1e6);
+        }
+    }
+
+    private static double[] dijkstraPairing(int n, int degree, int[] targets, double[] weights) {
+        double[] dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        int[] handle = new int[n];
+        Arrays.fill(handle, -1);
+        boolean[] done = new boolean[n];
+
+        PairingHeap heap = new PairingHeap(new Pool(n));
+        dist[0] = 0;
+        handle[0] = heap.insert(0, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            done[u] = true;
+            for (int e = u * degree; e < (u + 1) * degree; e++) {
+                int v = targets[e];
+                double d = dist[u] + weights[e];
+                if (done[v] || d >= dist[v]) continue;
+                dist[v] = d;
+                if (handle[v] == -1) handle[v] = heap.insert(d, v);
+                else heap.decreaseKey(handle[v], d);
+            }
+        }
+        return dist;
+    }
+
+    private static double[] dijkstraIndexed(int n, int degree, int[] targets, double[] weights) {
+        double[] dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+
+        MinIndexedBinaryHeap<Double> heap = new MinIndexedBinaryHeap<>(n);
+        dist[0] = 0;
+        heap.insert(0, 0.0);
+        while (!heap.isEmpty()) {
+            int u = heap.pollMinKeyIndex();
+            for (int e = u * degree; e < (u + 1) * degree; e++) {
+                int v = targets[e];
+                double d = dist[u] + weights[e];
+                if (d >= dist[v]) continue;
+                dist[v] = d;
+                if (heap.contains(v)) heap.decrease(v, d);
+                else heap.insert(v, d);
+            }
+        }
+        return dist;
+    }
+}
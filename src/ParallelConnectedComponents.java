@@ -0,0 +1,155 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Computes the connected components of a graph whose edges are stored in a
+// binary file, each edge being two big endian 32 bit vertex ids in [0, n).
+//
+// The file is split into partitions which are processed by a fork join pool.
+// Every partition memory maps its own window of the file (so files larger than
+// 2GB work and nothing is copied onto the heap) and unifies its edges into a
+// shared ConcurrentUnionFind. Because linking is lock free the partitions need
+// no merge step of their own; the final pass turns the roots into dense labels.
+public class ParallelConnectedComponents {
+
+    // Each edge is two 32 bit vertex ids
+    private static final int EDGE_BYTES = 8;
+
+    // Partitions smaller than this are not split any further
+    private static final long EDGES_PER_TASK = 1 << 20;
+
+    public static class Result {
+
+        // labels[v] is the component of vertex v in the range [0, components)
+        public final int[] labels;
+
+        // sizes[c] is the number of vertices in component c
+        public final int[] sizes;
+
+        private Result(int[] labels, int[] sizes) {
+            this.labels = labels;
+            this.sizes = sizes;
+        }
+
+        // Number of components, same as UnionFind.components()
+        public int components() {
+            return sizes.length;
+        }
+
+        // Size of the component v belongs to, same as UnionFind.componentSize(v)
+        public int componentSize(int v) {
+            return sizes[labels[v]];
+        }
+    }
+
+    public static Result compute(Path edgeFile, int numVertices) {
+        return compute(edgeFile, numVertices, ForkJoinPool.commonPool());
+    }
+
+    public static Result compute(Path edgeFile, int numVertices, ForkJoinPool pool) {
+        if (numVertices < 0) throw new IllegalArgumentException("numVertices < 0 is not allowed");
+
+        try (FileChannel channel = FileChannel.open(edgeFile, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes % EDGE_BYTES != 0)
+                throw new IllegalArgumentException("Edge file size is not a multiple of " + EDGE_BYTES + " bytes");
+
+            // An empty graph has no components, and no edge can be valid in it
+            if (numVertices == 0) {
+                if (bytes > 0) throw new IllegalArgumentException("Edges given for a graph without vertices");
+                return new Result(new int[0], new int[0]);
+            }
+
+            ConcurrentUnionFind uf = new ConcurrentUnionFind(numVertices);
+            pool.invoke(new UnifyTask(channel, uf, 0, bytes / EDGE_BYTES));
+            return labelComponents(uf, numVertices);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Turns the union find roots into dense component labels, O(n)
+    private static Result labelComponents(ConcurrentUnionFind uf, int n) {
+        int[] rootLabel = new int[n];
+        java.util.Arrays.fill(rootLabel, -1);
+
+        int[] labels = new int[n];
+        int[] sizes = new int[uf.components()];
+        int next = 0;
+        for (int v = 0; v < n; v++) {
+            int root = uf.find(v);
+            if (rootLabel[root] == -1) rootLabel[root] = next++;
+            labels[v] = rootLabel[root];
+            sizes[labels[v]]++;
+        }
+        return new Result(labels, sizes);
+    }
+
+    // Unifies the edges [from, to) of the file, splitting the range in halves
+    // until it is small enough to be mapped and scanned by a single thread.
+    @SuppressWarnings("serial")
+    private static class UnifyTask extends RecursiveAction {
+
+        private final FileChannel channel;
+        private final ConcurrentUnionFind uf;
+        private final long from, to;
+
+        UnifyTask(FileChannel channel, ConcurrentUnionFind uf, long from, long to) {
+            this.channel = channel;
+            this.uf = uf;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > EDGES_PER_TASK) {
+                long mid = (from + to) >>> 1;
+                invokeAll(new UnifyTask(channel, uf, from, mid), new UnifyTask(channel, uf, mid, to));
+                return;
+            }
+
+            MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, from * EDGE_BYTES, (to - from) * EDGE_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            IntBuffer ints = buffer.asIntBuffer();
+            while (ints.hasRemaining()) {
+                int p = ints.get(), q = ints.get();
+                if (p != q) uf.unify(p, q);
+            }
+        }
+    }
+
+    // Writes an edge list in the format read by compute
+    public static void writeEdges(Path edgeFile, int[] from, int[] to) {
+        if (from.length != to.length) throw new IllegalArgumentException("from and to must be of equal length");
+
+        try (FileChannel channel = FileChannel.open(edgeFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(EDGE_BYTES * 8192);
+            for (int i = 0; i < from.length; i++) {
+                buffer.putInt(from[i]).putInt(to[i]);
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) channel.write(buffer);
+                    buffer.clear();
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
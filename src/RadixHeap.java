@@ -0,0 +1,250 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+// An indexed radix heap for monotone 'long' priorities, such as the
+// distances popped by Dijkstra with integer weights. It offers the same key
+// index API as MinIndexedHeap (insert, decrease, delete, pollMinKeyIndex ...)
+// but never compares boxed values.
+//
+// The heap remembers the last extracted minimum 'last'. A value v lives in
+// bucket 0 if v == last and otherwise in bucket 64 - numberOfLeadingZeros(v ^ last),
+// the position of the highest bit in which it differs from 'last'. When bucket
+// 0 runs empty the first non empty bucket is scanned for its minimum, which
+// becomes the new 'last', and its elements are redistributed into strictly
+// lower buckets. This only happens when a minimum is extracted; peeking
+// just scans the bucket so it never raises the floor inserts are checked
+// against. Every element can only move down 64 times, giving O(1)
+// insert and decrease and O(log(C)) amortized extraction.
+//
+// The contract is that priorities are monotone: no value smaller than the
+// last extracted minimum may be inserted, otherwise an exception is thrown.
+public class RadixHeap {
+
+    private static final int BUCKETS = 65;
+
+    // Current number of elements in the heap
+    private int sz;
+
+    // Maximum number of elements in the heap
+    private final int N;
+
+    // The last extracted minimum, every value in the heap is >= last
+    private long last = Long.MIN_VALUE;
+
+    // The values associated with the key indexes
+    private final long[] values;
+
+    // bucketOf[ki] is the bucket holding ki (-1 if absent) and posOf[ki]
+    // its position inside that bucket
+    private final int[] bucketOf, posOf;
+
+    // The key indexes inside each bucket
+    private final int[][] buckets = new int[BUCKETS][];
+    private final int[] bucketSizes = new int[BUCKETS];
+
+    // The minimum found by the last peek while bucket 0 was empty, -1 if
+    // unknown. Cleared whenever a bucket or a value changes.
+    private int peeked = -1;
+
+    public RadixHeap(int maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize <= 0");
+        N = maxSize;
+        values = new long[N];
+        bucketOf = new int[N];
+        posOf = new int[N];
+        Arrays.fill(bucketOf, -1);
+        for (int b = 0; b < BUCKETS; b++) buckets[b] = new int[4];
+    }
+
+    public int size() {
+        return sz;
+    }
+
+    public boolean isEmpty() {
+        return sz == 0;
+    }
+
+    public boolean contains(int ki) {
+        keyInBoundsOrThrow(ki);
+        return bucketOf[ki] != -1;
+    }
+
+    // The last extracted minimum, values smaller than this are rejected
+    public long lastExtracted() {
+        return last;
+    }
+
+    public int peekMinKeyIndex() {
+        isNotEmptyOrThrow();
+        if (bucketSizes[0] > 0) return buckets[0][bucketSizes[0] - 1];
+        if (peeked == -1) peeked = scanMin(firstNonEmptyBucket());
+        return peeked;
+    }
+
+    // Extracting the minimum is the only operation which advances 'last'
+    public int pollMinKeyIndex() {
+        int minki = peekMinKeyIndex();
+        refill();
+        remove(minki);
+        return minki;
+    }
+
+    public long peekMinValue() {
+        return values[peekMinKeyIndex()];
+    }
+
+    public long pollMinValue() {
+        return values[pollMinKeyIndex()];
+    }
+
+    public void insert(int ki, long value) {
+        if (contains(ki))
+            throw new IllegalArgumentException("index already exists; received: " + ki);
+        monotoneOrThrow(value);
+        values[ki] = value;
+        add(ki, bucket(value));
+        sz++;
+    }
+
+    public long valueOf(int ki) {
+        keyExistsOrThrow(ki);
+        return values[ki];
+    }
+
+    public long delete(int ki) {
+        keyExistsOrThrow(ki);
+        remove(ki);
+        return values[ki];
+    }
+
+    // Changes the value of 'ki' to any value >= the last extracted minimum
+    public long update(int ki, long value) {
+        keyExistsOrThrow(ki);
+        monotoneOrThrow(value);
+        long oldValue = values[ki];
+        removeFromBucket(ki);
+        values[ki] = value;
+        add(ki, bucket(value));
+        return oldValue;
+    }
+
+    // Strictly decreases the value associated with 'ki' to 'value', O(1)
+    public void decrease(int ki, long value) {
+        keyExistsOrThrow(ki);
+        monotoneOrThrow(value);
+        if (value < values[ki]) {
+            values[ki] = value;
+            peeked = -1;
+            int b = bucket(value);
+            if (b != bucketOf[ki]) {
+                removeFromBucket(ki);
+                add(ki, b);
+            }
+        }
+    }
+
+    // The bucket a value belongs to relative to 'last'
+    private int bucket(long value) {
+        return value == last ? 0 : 64 - Long.numberOfLeadingZeros(value ^ last);
+    }
+
+    // Makes sure bucket 0 holds the current minimum
+    private void refill() {
+        if (bucketSizes[0] > 0) return;
+
+        int b = firstNonEmptyBucket();
+        int[] members = buckets[b];
+        int count = bucketSizes[b];
+        last = values[scanMin(b)];
+
+        // Every member now differs from 'last' in a lower bit than b, so they all
+        // move to lower buckets and 'members' is not touched while we iterate
+        bucketSizes[b] = 0;
+        for (int i = 0; i < count; i++) {
+            int ki = members[i];
+            add(ki, bucket(values[ki]));
+        }
+    }
+
+    private int firstNonEmptyBucket() {
+        int b = 1;
+        while (bucketSizes[b] == 0) b++;
+        return b;
+    }
+
+    // Returns the key index with the smallest value in bucket b
+    private int scanMin(int b) {
+        int[] members = buckets[b];
+        int minki = members[0];
+        for (int i = 1; i < bucketSizes[b]; i++)
+            if (values[members[i]] < values[minki]) minki = members[i];
+        return minki;
+    }
+
+    private void add(int ki, int b) {
+        peeked = -1;
+        int pos = bucketSizes[b]++;
+        if (pos == buckets[b].length) buckets[b] = Arrays.copyOf(buckets[b], 2 * pos);
+        buckets[b][pos] = ki;
+        bucketOf[ki] = b;
+        posOf[ki] = pos;
+    }
+
+    private void remove(int ki) {
+        removeFromBucket(ki);
+        bucketOf[ki] = -1;
+        sz--;
+    }
+
+    // Removes ki from its bucket by moving the last member into its place, O(1)
+    private void removeFromBucket(int ki) {
+        peeked = -1;
+        int b = bucketOf[ki], pos = posOf[ki];
+        int lastPos = --bucketSizes[b];
+        int moved = buckets[b][lastPos];
+        buckets[b][pos] = moved;
+        posOf[moved] = pos;
+    }
+
+    // Helper functions to make the code more readable.
+
+    private void isNotEmptyOrThrow() {
+        if (isEmpty()) throw new NoSuchElementException("Priority queue underflow");
+    }
+
+    private void keyExistsOrThrow(int ki) {
+        if (!contains(ki))
+            throw new NoSuchElementException("Index does not exist; received: " + ki);
+    }
+
+    private void monotoneOrThrow(long value) {
+        if (value < last)
+            throw new IllegalArgumentException("value is smaller than the last extracted minimum " + last + "; received: " + value);
+    }
+
+    private void keyInBoundsOrThrow(int ki) {
+        if (ki < 0 || ki >= N)
+            throw new IllegalArgumentException("Key out of bounds; received: " + ki);
+    }
+
+    // Checks that peeking does not move the monotone floor, then drains the heap
+    public static void main(String[] args) {
+        RadixHeap heap = new RadixHeap(8);
+        heap.insert(0, 10);
+        heap.insert(1, 20);
+        if (heap.peekMinValue() != 10 || heap.lastExtracted() != Long.MIN_VALUE)
+            throw new IllegalStateException("Peek moved the floor to " + heap.lastExtracted());
+
+        heap.insert(2, 5);
+        if (heap.peekMinKeyIndex() != 2) throw new IllegalStateException("Expected key 2 to be the minimum");
+
+        long previous = Long.MIN_VALUE;
+        while (!heap.isEmpty()) {
+            long value = heap.pollMinValue();
+            if (value < previous || heap.lastExtracted() != value)
+                throw new IllegalStateException("Extracted " + value + " after " + previous);
+            previous = value;
+        }
+        System.out.println("last extracted " + heap.lastExtracted());
+    }
+}
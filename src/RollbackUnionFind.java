@@ -0,0 +1,112 @@
+// A union find whose unions can be undone. It uses union by size but no path
+// compression, so every union changes exactly one parent pointer and can be
+// reverted in O(1) from a log. find is O(log(n)) as the trees stay balanced.
+//
+// Usage:
+//   int snapshot = uf.snapshot();
+//   uf.unify(a, b); uf.unify(c, d);
+//   uf.rollback(snapshot); // both unions are undone
+public class RollbackUnionFind {
+
+    // The number of elements of this union find
+    private final int size;
+
+    // Track sizes of each of the components
+    private final int[] sz;
+
+    // id[i] points to the parent of i, if id[i] = i then i is the root node
+    private final int[] id;
+
+    // Tracks the number of components in the union find
+    private int numComponents;
+
+    // The roots which were attached below another root, in order
+    private int[] history;
+    private int historySize;
+
+    public RollbackUnionFind(int size) {
+
+        if (size <= 0) throw new IllegalArgumentException("Size <= 0 is not allowed");
+
+        this.size = numComponents = size;
+        sz = new int[size];
+        id = new int[size];
+        history = new int[16];
+
+        for (int i = 0; i < size; i++) {
+            sz[i] = 1; // Each Component is size 1 at the beginning
+            id[i] = i; // Each element is it's own root
+        }
+    }
+
+    // Find which component/set p belongs to, O(log(n))
+    public int find(int p) {
+        while (p != id[p]) p = id[p];
+        return p;
+    }
+
+    // Are p and q in same component/set
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    // Size of component p belongs to
+    public int componentSize(int p) {
+        return sz[find(p)];
+    }
+
+    // Number of elements in this UnionFind/Disjoint Set
+    public int size() {
+        return size;
+    }
+
+    public int components() {
+        return numComponents;
+    }
+
+    // Unify components/sets containing elements p and q. Returns true
+    // if the two components were different and got merged.
+    public boolean unify(int p, int q) {
+
+        int root1 = find(p);
+        int root2 = find(q);
+
+        if (root1 == root2) return false;
+
+        // Attach the smaller tree (root1) below the larger one (root2)
+        if (sz[root1] > sz[root2]) {
+            int tmp = root1;
+            root1 = root2;
+            root2 = tmp;
+        }
+        sz[root2] += sz[root1];
+        id[root1] = root2;
+
+        if (historySize == history.length) history = java.util.Arrays.copyOf(history, 2 * historySize);
+        history[historySize++] = root1;
+
+        // Since the roots were different, unification will decrease
+        // component number by 1
+        numComponents--;
+        return true;
+    }
+
+    // Returns a marker of the current state to be passed to rollback
+    public int snapshot() {
+        return historySize;
+    }
+
+    // Undo every union made since 'snapshot' was taken, O(number of unions undone)
+    public void rollback(int snapshot) {
+        if (snapshot < 0 || snapshot > historySize)
+            throw new IllegalArgumentException("Invalid snapshot; received: " + snapshot);
+
+        while (historySize > snapshot) {
+            int child = history[--historySize];
+            int root = id[child];
+            sz[root] -= sz[child];
+            id[child] = child;
+            numComponents++;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.util.NoSuchElementException;
+
+// Tracks a quantile (for example the median) of a stream of doubles with two
+// heaps. 'lower' is a max heap holding the smallest floor(q*(n-1)) + 1
+// values, 'upper' is a min heap holding the rest, so the two values the
+// quantile is interpolated between are always at the roots. Both are
+// DoubleIntHeaps, the max heap simply stores negated keys. add is O(log(n))
+// and quantile is O(1).
+public class RunningQuantile {
+
+    private final double q;
+
+    // lower stores -x for every value x so its root is the largest value
+    private final DoubleIntHeap lower = new DoubleIntHeap();
+    private final DoubleIntHeap upper = new DoubleIntHeap();
+
+    // Tracks the q-quantile, 0 <= q <= 1
+    public RunningQuantile(double q) {
+        if (!(q >= 0 && q <= 1)) throw new IllegalArgumentException("q must be in [0, 1]; received: " + q);
+        this.q = q;
+    }
+
+    public static RunningQuantile median() {
+        return new RunningQuantile(0.5);
+    }
+
+    public int size() {
+        return lower.size() + upper.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void add(double x) {
+        if (Double.isNaN(x)) throw new IllegalArgumentException("x cannot be NaN");
+
+        if (!lower.isEmpty() && x <= -lower.peekKey()) lower.add(-x, 0);
+        else upper.add(x, 0);
+
+        // The wanted size of 'lower' grows by at most one per value so a
+        // single move between the heaps restores the split
+        int target = rank(size()) + 1;
+        if (lower.size() > target) {
+            upper.add(-lower.peekKey(), 0);
+            lower.poll();
+        } else if (lower.size() < target) {
+            lower.add(-upper.peekKey(), 0);
+            upper.poll();
+        }
+    }
+
+    // Returns the q-quantile of the values added so far, linearly
+    // interpolating between the two closest ranks like most statistics
+    // packages do (so the median of an even count is the mean of the middle two)
+    public double quantile() {
+        if (isEmpty()) throw new NoSuchElementException("No values added");
+        int n = size();
+        double position = q * (n - 1);
+        double fraction = position - rank(n);
+        double below = -lower.peekKey();
+        if (fraction == 0 || upper.isEmpty()) return below;
+        return below + fraction * (upper.peekKey() - below);
+    }
+
+    // The 0 based rank of the value at or just below the quantile position
+    private int rank(int n) {
+        return (int) Math.floor(q * (n - 1));
+    }
+
+    public void clear() {
+        lower.clear();
+        upper.clear();
+    }
+}
@@ -0,0 +1,225 @@
+import hashtable.LongLongHashMap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static java.lang.Math.*;
+
+// A D-ary indexed min heap like MinIndexedHeap, but keyed by arbitrary
+// 'long' ids (for example sparse 64 bit job ids) instead of key indexes in
+// [0, maxSize). Every id is given an internal slot through a primitive
+// LongLongHashMap. The slot arrays grow geometrically and the slots of
+// deleted ids are recycled, so memory follows the number of live ids.
+// update, decrease and delete by id stay O(log(n)).
+public class SparseMinIndexedHeap <T extends Comparable<T>> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Current number of elements in the heap
+    private int sz;
+
+    // The degree of every node in the heap
+    private final int D;
+
+    // Maps an external id to its slot
+    private final LongLongHashMap slotOf;
+
+    // Per slot data: the id owning the slot, its value and its position in
+    // the heap (pm). 'im' maps a heap position back to a slot.
+    private long[] ids;
+    private Object[] values;
+    private int[] pm, im;
+
+    // Slots which were freed by deletions, reused before new ones
+    private int[] freeSlots;
+    private int freeCount, slotsUsed;
+
+    public SparseMinIndexedHeap() {
+        this(4, DEFAULT_CAPACITY);
+    }
+
+    public SparseMinIndexedHeap(int degree, int initialCapacity) {
+        if (initialCapacity < 0) throw new IllegalArgumentException("initialCapacity < 0");
+        D = max(2, degree);
+        int capacity = max(1, initialCapacity);
+        slotOf = new LongLongHashMap(capacity);
+        ids = new long[capacity];
+        values = new Object[capacity];
+        pm = new int[capacity];
+        im = new int[capacity];
+        freeSlots = new int[capacity];
+    }
+
+    public int size() {
+        return sz;
+    }
+
+    public boolean isEmpty() {
+        return sz == 0;
+    }
+
+    public boolean contains(long id) {
+        return slotOf.containsKey(id);
+    }
+
+    public long peekMinId() {
+        isNotEmptyOrThrow();
+        return ids[im[0]];
+    }
+
+    public long pollMinId() {
+        long minId = peekMinId();
+        delete(minId);
+        return minId;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T peekMinValue() {
+        isNotEmptyOrThrow();
+        return (T) values[im[0]];
+    }
+
+    public T pollMinValue() {
+        T minValue = peekMinValue();
+        delete(peekMinId());
+        return minValue;
+    }
+
+    public void insert(long id, T value) {
+        if (contains(id))
+            throw new IllegalArgumentException("id already exists; received: " + id);
+        valueNotNullOrThrow(value);
+
+        int slot = allocateSlot();
+        slotOf.put(id, slot, -1);
+        ids[slot] = id;
+        values[slot] = value;
+        pm[slot] = sz;
+        im[sz] = slot;
+        swim(sz++);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T valueOf(long id) {
+        return (T) values[slotOrThrow(id)];
+    }
+
+    @SuppressWarnings("unchecked")
+    public T delete(long id) {
+        int slot = slotOrThrow(id);
+        final int i = pm[slot];
+        swap(i, --sz);
+        sink(i);
+        swim(i);
+        T value = (T) values[slot];
+        values[slot] = null;
+        slotOf.remove(id, -1);
+        freeSlots[freeCount++] = slot;
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T update(long id, T value) {
+        int slot = slotOrThrow(id);
+        valueNotNullOrThrow(value);
+        final int i = pm[slot];
+        T oldValue = (T) values[slot];
+        values[slot] = value;
+        sink(i);
+        swim(i);
+        return oldValue;
+    }
+
+    // Strictly decreases the value associated with 'id' to 'value'
+    @SuppressWarnings("unchecked")
+    public void decrease(long id, T value) {
+        int slot = slotOrThrow(id);
+        valueNotNullOrThrow(value);
+        if (value.compareTo((T) values[slot]) < 0) {
+            values[slot] = value;
+            swim(pm[slot]);
+        }
+    }
+
+    // Returns a recycled slot or a new one, growing the arrays when full
+    private int allocateSlot() {
+        if (freeCount > 0) return freeSlots[--freeCount];
+        if (slotsUsed == ids.length) {
+            int capacity = 2 * ids.length;
+            ids = Arrays.copyOf(ids, capacity);
+            values = Arrays.copyOf(values, capacity);
+            pm = Arrays.copyOf(pm, capacity);
+            im = Arrays.copyOf(im, capacity);
+            freeSlots = Arrays.copyOf(freeSlots, capacity);
+        }
+        return slotsUsed++;
+    }
+
+    // Helper functions
+
+    private void sink(int i) {
+        for (int j = minChild(i); j != -1; ) {
+            swap(i, j);
+            i = j;
+            j = minChild(i);
+        }
+    }
+
+    private void swim(int i) {
+        while (i > 0 && less(i, (i - 1) / D)) {
+            int parent = (i - 1) / D;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    // From the parent node at index i find the minimum child below it
+    private int minChild(int i) {
+        int index = -1, from = i * D + 1, to = min(sz, from + D);
+        for (int j = from; j < to; j++)
+            if (less(j, i))
+                index = i = j;
+        return index;
+    }
+
+    private void swap(int i, int j) {
+        pm[im[j]] = i;
+        pm[im[i]] = j;
+        int tmp = im[i];
+        im[i] = im[j];
+        im[j] = tmp;
+    }
+
+    // Tests if the value of node i < node j
+    @SuppressWarnings("unchecked")
+    private boolean less(int i, int j) {
+        return ((Comparable<? super T>) values[im[i]]).compareTo((T) values[im[j]]) < 0;
+    }
+
+    // Helper functions to make the code more readable.
+
+    private void isNotEmptyOrThrow() {
+        if (isEmpty()) throw new NoSuchElementException("Priority queue underflow");
+    }
+
+    private int slotOrThrow(long id) {
+        long slot = slotOf.get(id, -1);
+        if (slot == -1) throw new NoSuchElementException("Id does not exist; received: " + id);
+        return (int) slot;
+    }
+
+    private void valueNotNullOrThrow(Object value) {
+        if (value == null)
+            throw new IllegalArgumentException("value cannot be null");
+    }
+
+    // Test functions
+
+    // Checks that no node is smaller than its parent. This method is used
+    // for testing purposes to validate the heap invariant.
+    public boolean isMinHeap() {
+        for (int i = 1; i < sz; i++)
+            if (less(i, (i - 1) / D)) return false;
+        return true;
+    }
+}
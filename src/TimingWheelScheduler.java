@@ -0,0 +1,368 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// A hierarchical timing wheel for very large numbers of timeouts.
+//
+// Time advances in ticks. There are LEVELS wheels of SLOTS slots each. A
+// timeout is stored in the lowest wheel whose span still contains its
+// deadline; whenever a wheel completes a revolution the next slot of the
+// wheel above is cascaded down. Scheduling and cancelling are therefore O(1)
+// (a doubly linked list insert or unlink) instead of the O(log(n)) a heap
+// pays. Deadlines further away than the wheels can hold go into a PQueue
+// which is only consulted once every SLOTS^LEVELS ticks. Cancelled timeouts
+// in that queue are purged once they make up half of it, so schedule and
+// cancel cycles of far away deadlines cannot pile up.
+//
+// All wheel state is owned by a single dedicated thread. Other threads hand
+// over new and cancelled timeouts through two lock free multi producer single
+// consumer stacks, which the wheel thread drains once per tick. Timeouts
+// expiring in the same tick are delivered to the expiry handler as one batch.
+public class TimingWheelScheduler {
+
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    public static final class Timeout implements Comparable<Timeout> {
+
+        private static final int PENDING = 0, CANCELLED = 1, EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimingWheelScheduler scheduler;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = PENDING;
+
+        // Links of the slot list this timeout is in (owned by the wheel thread)
+        private Timeout prev, next;
+        private Slot slot;
+
+        // Whether the timeout is waiting in the overflow queue and has not been
+        // counted in 'cancelledInOverflow' yet (owned by the wheel thread)
+        private boolean inOverflow;
+
+        // Links of the submission and cancellation stacks
+        private Timeout nextSubmitted, nextCancelled;
+
+        private Timeout(TimingWheelScheduler scheduler, Runnable task, long deadline) {
+            this.scheduler = scheduler;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public Runnable task() {
+            return task;
+        }
+
+        // The tick at which this timeout expires
+        public long deadline() {
+            return deadline;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        // Cancels the timeout if it has not expired yet, O(1). Returns false
+        // if it already expired or was cancelled before.
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) return false;
+            scheduler.push(scheduler.cancelled, this, false);
+            return true;
+        }
+
+        @Override
+        public int compareTo(Timeout other) {
+            return Long.compare(deadline, other.deadline);
+        }
+    }
+
+    // A doubly linked list of timeouts
+    private static final class Slot {
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.slot = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) head.prev = timeout;
+            head = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) timeout.prev.next = timeout.next;
+            else head = timeout.next;
+            if (timeout.next != null) timeout.next.prev = timeout.prev;
+            timeout.prev = timeout.next = null;
+            timeout.slot = null;
+        }
+
+        // Unlinks and returns the whole list
+        Timeout takeAll() {
+            Timeout all = head;
+            head = null;
+            return all;
+        }
+    }
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final Consumer<List<Timeout>> expiryHandler;
+
+    private final Slot[][] wheels = new Slot[LEVELS][SLOTS];
+    private final PQueue<Timeout> overflow = new PQueue<>();
+
+    // Cancelled timeouts still sitting in 'overflow'
+    private int cancelledInOverflow;
+
+    private final AtomicReference<Timeout> submitted = new AtomicReference<>();
+    private final AtomicReference<Timeout> cancelled = new AtomicReference<>();
+
+    // Timeouts expiring in the current tick, reused between ticks
+    private final List<Timeout> expired = new ArrayList<>();
+
+    // The last tick which has been processed
+    private volatile long currentTick;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    // Creates a scheduler whose tasks are run on the wheel thread itself
+    public TimingWheelScheduler(long tickDuration, TimeUnit unit) {
+        this(tickDuration, unit, batch -> {
+            for (Timeout timeout : batch) timeout.task().run();
+        });
+    }
+
+    // Creates a scheduler passing every batch of expired timeouts to 'expiryHandler'
+    public TimingWheelScheduler(long tickDuration, TimeUnit unit, Consumer<List<Timeout>> expiryHandler) {
+        if (tickDuration <= 0) throw new IllegalArgumentException("tickDuration <= 0");
+        if (expiryHandler == null) throw new IllegalArgumentException("expiryHandler cannot be null");
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.expiryHandler = expiryHandler;
+        this.startNanos = System.nanoTime();
+        for (int level = 0; level < LEVELS; level++)
+            for (int s = 0; s < SLOTS; s++) wheels[level][s] = new Slot();
+    }
+
+    // Starts the dedicated wheel thread
+    public synchronized void start() {
+        if (worker != null) throw new IllegalStateException("Scheduler already started");
+        running = true;
+        worker = new Thread(this::run, "timing-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Stops the wheel thread, pending timeouts are not run
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+            worker.join();
+        }
+    }
+
+    // Schedules 'task' to run once 'delay' has passed, rounded up to whole ticks. Thread safe
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long elapsed = System.nanoTime() - startNanos + unit.toNanos(Math.max(0, delay));
+        return submit(task, (elapsed + tickNanos - 1) / tickNanos);
+    }
+
+    // Schedules 'task' to run 'ticks' ticks after the current one. Thread safe
+    public Timeout scheduleAfterTicks(Runnable task, long ticks) {
+        return submit(task, currentTick + Math.max(1, ticks));
+    }
+
+    private Timeout submit(Runnable task, long deadline) {
+        if (task == null) throw new IllegalArgumentException("task cannot be null");
+        Timeout timeout = new Timeout(this, task, deadline);
+        push(submitted, timeout, true);
+        return timeout;
+    }
+
+    // Lock free push onto one of the two intrusive stacks
+    private void push(AtomicReference<Timeout> stack, Timeout timeout, boolean submission) {
+        Timeout head;
+        do {
+            head = stack.get();
+            if (submission) timeout.nextSubmitted = head;
+            else timeout.nextCancelled = head;
+        } while (!stack.compareAndSet(head, timeout));
+    }
+
+    private void run() {
+        long tick = currentTick;
+        while (running) {
+            long wakeUp = startNanos + (tick + 1) * tickNanos;
+            long sleep;
+            while (running && (sleep = wakeUp - System.nanoTime()) > 0) LockSupport.parkNanos(sleep);
+            if (!running) break;
+            step();
+            tick++;
+        }
+    }
+
+    // Processes 'ticks' ticks right away, for driving the wheel manually in
+    // tests. The wheel state is owned by the wheel thread, so this must not
+    // be called once start() has been called.
+    synchronized void advance(int ticks) {
+        if (worker != null) throw new IllegalStateException("Scheduler is driven by its own thread");
+        for (int i = 0; i < ticks; i++) step();
+    }
+
+    // Processes the next tick
+    private void step() {
+        drainSubmissions();
+        drainCancellations();
+        tick(currentTick + 1);
+    }
+
+    // Moves the wheel to tick 't' and expires everything due at 't'
+    private void tick(long t) {
+        currentTick = t;
+
+        // A new revolution of the top wheel, pull in the overflow timeouts which now fit
+        if ((t & mask(LEVELS)) == 0) {
+            while (!overflow.isEmpty() && (overflow.peek().deadline >>> (SLOT_BITS * LEVELS)) <= (t >>> (SLOT_BITS * LEVELS))) {
+                Timeout timeout = overflow.poll();
+                boolean counted = !timeout.inOverflow;
+                timeout.inOverflow = false;
+                if (timeout.state == Timeout.PENDING) place(timeout);
+                else if (counted) cancelledInOverflow--;
+            }
+        }
+
+        // Cascade from the highest wheel down so freshly cascaded slots are cascaded again
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            if ((t & mask(level)) != 0) continue;
+            Timeout timeout = wheels[level][slotIndex(t, level)].takeAll();
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.prev = timeout.next = null;
+                timeout.slot = null;
+                place(timeout);
+                timeout = next;
+            }
+        }
+
+        Timeout timeout = wheels[0][slotIndex(t, 0)].takeAll();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = timeout.next = null;
+            timeout.slot = null;
+            expire(timeout);
+            timeout = next;
+        }
+
+        if (!expired.isEmpty()) {
+            try {
+                expiryHandler.accept(expired);
+            } catch (Throwable e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            } finally {
+                expired.clear();
+            }
+        }
+    }
+
+    // Bit mask of the ticks spanned by one slot of the given level
+    private static long mask(int level) {
+        return (1L << (SLOT_BITS * level)) - 1;
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) (tick >>> (SLOT_BITS * level)) & (SLOTS - 1);
+    }
+
+    // Puts a pending timeout into the lowest wheel whose current revolution
+    // contains its deadline, into the overflow queue if none does, or
+    // expires it right away if its deadline has already been reached
+    private void place(Timeout timeout) {
+        long deadline = timeout.deadline;
+        if (deadline <= currentTick) {
+            expire(timeout);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (((deadline ^ currentTick) >>> (SLOT_BITS * (level + 1))) == 0) {
+                wheels[level][slotIndex(deadline, level)].add(timeout);
+                return;
+            }
+        }
+        timeout.inOverflow = true;
+        overflow.add(timeout);
+    }
+
+    private void expire(Timeout timeout) {
+        if (Timeout.STATE.compareAndSet(timeout, Timeout.PENDING, Timeout.EXPIRED)) expired.add(timeout);
+    }
+
+    private void drainSubmissions() {
+        Timeout timeout = reverse(submitted.getAndSet(null));
+        while (timeout != null) {
+            Timeout next = timeout.nextSubmitted;
+            timeout.nextSubmitted = null;
+            if (timeout.state == Timeout.PENDING) place(timeout);
+            timeout = next;
+        }
+    }
+
+    // Unlinks cancelled timeouts from their slot, O(1) each. Cancelled timeouts in
+    // the overflow queue are counted and purged in bulk once they make up half
+    // of it, which is O(log(n)) amortized per cancelled timeout.
+    private void drainCancellations() {
+        Timeout timeout = cancelled.getAndSet(null);
+        while (timeout != null) {
+            Timeout next = timeout.nextCancelled;
+            timeout.nextCancelled = null;
+            if (timeout.slot != null) timeout.slot.remove(timeout);
+            else if (timeout.inOverflow) {
+                timeout.inOverflow = false;
+                cancelledInOverflow++;
+            }
+            timeout = next;
+        }
+        if (cancelledInOverflow > 0 && 2 * cancelledInOverflow >= overflow.size()) purgeOverflow();
+    }
+
+    // Rebuilds the overflow queue from its pending timeouts
+    private void purgeOverflow() {
+        List<Timeout> pending = new ArrayList<>(overflow.size() - cancelledInOverflow);
+        while (!overflow.isEmpty()) {
+            Timeout timeout = overflow.poll();
+            if (timeout.state == Timeout.PENDING) pending.add(timeout);
+            else timeout.inOverflow = false;
+        }
+        overflow.addAll(pending);
+        cancelledInOverflow = 0;
+    }
+
+    // Reverses a submission stack so timeouts are placed in submission order
+    private static Timeout reverse(Timeout head) {
+        Timeout reversed = null;
+        while (head != null) {
+            Timeout next = head.nextSubmitted;
+            head.nextSubmitted = reversed;
+            reversed = head;
+            head = next;
+        }
+        return reversed;
+    }
+
+    // The last tick which has been processed
+    public long currentTick() {
+        return currentTick;
+    }
+}
@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Keeps the K largest elements seen on an unbounded stream in O(K) memory.
+// The elements are held in a PQueue min heap of size K whose root is the
+// smallest element kept so far, i.e. the threshold a new element has to
+// beat. Anything not larger than the threshold is rejected with a single
+// comparison in O(1); only accepted elements pay O(log(K)) to replace the root.
+public class TopK <T extends Comparable<T>> {
+
+    private final int k;
+    private final PQueue<T> heap;
+
+    public TopK(int k) {
+        if (k <= 0) throw new IllegalArgumentException("k <= 0");
+        this.k = k;
+        this.heap = new PQueue<>(k);
+    }
+
+    public int k() {
+        return k;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    // Offers an element from the stream, returns true if it is now among the
+    // K largest. Ties with the threshold are rejected so the earliest wins.
+    public boolean offer(T elem) {
+        if (elem == null) throw new IllegalArgumentException("elem cannot be null");
+
+        if (heap.size() < k) {
+            heap.add(elem);
+            return true;
+        }
+
+        // Early reject fast path, O(1)
+        if (elem.compareTo(heap.peek()) <= 0) return false;
+
+        heap.poll();
+        heap.add(elem);
+        return true;
+    }
+
+    public void offerAll(Iterable<T> elems) {
+        for (T elem : elems) offer(elem);
+    }
+
+    // Returns the smallest of the elements kept, the value a new element
+    // has to exceed once K elements have been seen. Null if empty.
+    public T threshold() {
+        return heap.peek();
+    }
+
+    // Returns the elements kept from largest to smallest, O(Klog(K))
+    public List<T> toSortedList() {
+        List<T> sorted = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) sorted.add(heap.poll());
+
+        // Ascending order already satisfies the heap invariant, so adding
+        // the elements back never has to swim
+        for (T elem : sorted) heap.add(elem);
+        Collections.reverse(sorted);
+        return sorted;
+    }
+
+    public void clear() {
+        heap.clear();
+    }
+}
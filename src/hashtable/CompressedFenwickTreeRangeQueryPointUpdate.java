@@ -0,0 +1,113 @@
+package hashtable;
+
+import java.util.Arrays;
+
+// A Fenwick tree over arbitrary long keys whose set is known up front (offline).
+// The keys are sorted and deduplicated once by the Builder and each key is then
+// mapped to a dense index of a regular FenwickTreeRangeQueryPointUpdate with a
+// binary search, so memory is proportional to the number of distinct keys.
+//
+// Usage:
+//   CompressedFenwickTreeRangeQueryPointUpdate.Builder builder = new Builder();
+//   for (long key : keys) builder.addKey(key);
+//   CompressedFenwickTreeRangeQueryPointUpdate ft = builder.build();
+public class CompressedFenwickTreeRangeQueryPointUpdate {
+
+    // Collects the keys which will be used before building the tree.
+    public static class Builder {
+
+        private long[] keys = new long[16];
+        private int count;
+
+        public Builder addKey(long key) {
+            if (count == keys.length) keys = Arrays.copyOf(keys, 2 * count);
+            keys[count++] = key;
+            return this;
+        }
+
+        public Builder addKeys(long[] keys) {
+            for (long key : keys) addKey(key);
+            return this;
+        }
+
+        // Sorts and deduplicates the keys, O(klog(k))
+        public CompressedFenwickTreeRangeQueryPointUpdate build() {
+            long[] sorted = Arrays.copyOf(keys, count);
+            Arrays.sort(sorted);
+            int unique = 0;
+            for (int i = 0; i < sorted.length; i++)
+                if (i == 0 || sorted[i] != sorted[unique - 1]) sorted[unique++] = sorted[i];
+            return new CompressedFenwickTreeRangeQueryPointUpdate(Arrays.copyOf(sorted, unique));
+        }
+    }
+
+    // The sorted distinct keys, coords[j] is stored at index j+1 of the tree
+    private final long[] coords;
+
+    private final FenwickTreeRangeQueryPointUpdate tree;
+
+    private CompressedFenwickTreeRangeQueryPointUpdate(long[] coords) {
+        this.coords = coords;
+        tree = new FenwickTreeRangeQueryPointUpdate(coords.length);
+    }
+
+    // Returns the number of distinct keys
+    public int size() {
+        return coords.length;
+    }
+
+    // Returns the sum of the values of all keys in [left, right]. The bounds do
+    // not have to be registered keys themselves, O(log(n))
+    public long sum(long left, long right) {
+        if (right < left) throw new IllegalArgumentException("Make sure right >= left");
+        int lo = countLess(left) + 1;
+        int hi = countLessOrEqual(right);
+        if (hi < lo) return 0L;
+        return tree.sum(lo, hi);
+    }
+
+    // Get the value of a registered key
+    public long get(long key) {
+        int i = indexOf(key);
+        return tree.sum(i, i);
+    }
+
+    // Add 'v' to a registered key, O(log(n))
+    public void add(long key, long v) {
+        tree.add(indexOf(key), v);
+    }
+
+    // Set a registered key to be equal to v, O(log(n))
+    public void set(long key, long v) {
+        tree.set(indexOf(key), v);
+    }
+
+    // Returns the one based tree index of a registered key
+    private int indexOf(long key) {
+        int i = Arrays.binarySearch(coords, key);
+        if (i < 0) throw new IllegalArgumentException("Key was not registered with the builder; received: " + key);
+        return i + 1;
+    }
+
+    // Returns the number of keys < 'key'
+    private int countLess(long key) {
+        int lo = 0, hi = coords.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (coords[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Returns the number of keys <= 'key'
+    private int countLessOrEqual(long key) {
+        int lo = 0, hi = coords.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (coords[mid] <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -26,10 +26,22 @@ public class FenwickTreeRangeQueryPointUpdate {
         // Make a clone of the values array since we manipulate
         // the array in place destroying all its original content.
         tree = values.clone();
+        build(tree);
+    }
+
+    // Turns an array of one based point values into a Fenwick tree in place, O(n)
+    private static void build(long[] tree) {
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + lsb(i);
+            if (parent < tree.length) tree[parent] += tree[i];
+        }
+    }
 
-        for (int i = 1; i < N; i++) {
+    // The inverse of build, turns a Fenwick tree back into its point values in place, O(n)
+    private static void unbuild(long[] tree) {
+        for (int i = tree.length - 1; i >= 1; i--) {
             int parent = i + lsb(i);
-            if (parent < N) tree[parent] += tree[i];
+            if (parent < tree.length) tree[parent] -= tree[i];
         }
     }
 
@@ -82,6 +94,61 @@ public class FenwickTreeRangeQueryPointUpdate {
         add(i, v - sum(i, i));
     }
 
+    // Add deltas[j] to index indices[j] for every j. Small batches are applied
+    // one at a time in O(klog(n)). Once that would cost more than rebuilding,
+    // the tree is turned back into point values, the deltas are applied and
+    // the tree is reconstructed, O(n + k).
+    public void addAll(int[] indices, long[] deltas) {
+        if (indices == null || deltas == null || indices.length != deltas.length)
+            throw new IllegalArgumentException("indices and deltas must be non null and of equal length");
+
+        // Validate the whole batch first so both paths reject the same input
+        // before anything is changed
+        final int k = indices.length;
+        for (int j = 0; j < k; j++)
+            if (indices[j] < 1 || indices[j] >= N)
+                throw new IndexOutOfBoundsException("Index out of bounds; received: " + indices[j]);
+
+        if ((long) k * (32 - Integer.numberOfLeadingZeros(N)) < N) {
+            for (int j = 0; j < k; j++) add(indices[j], deltas[j]);
+            return;
+        }
+
+        unbuild(tree);
+        for (int j = 0; j < k; j++) tree[indices[j]] += deltas[j];
+        build(tree);
+    }
+
+    // When the tree is used as a frequency table returns the number of
+    // elements with an index <= i, O(log(n))
+    public long rank(int i) {
+        return prefixSum(i);
+    }
+
+    // Returns the smallest index i such that the prefix sum [1, i] >= prefix,
+    // or N if the total sum is smaller than prefix. All values MUST BE NON
+    // NEGATIVE. Instead of binary searching over sum(1, mid) in O(log^2(n))
+    // this descends the implicit tree by binary lifting in O(log(n)).
+    public int lowerBound(long prefix) {
+        int pos = 0;
+        for (int step = Integer.highestOneBit(N); step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next < N && tree[next] < prefix) {
+                pos = next;
+                prefix -= tree[next];
+            }
+        }
+        return pos + 1;
+    }
+
+    // When the tree is used as a frequency table returns the index of the
+    // k-th smallest element (k is one based), O(log(n))
+    public int select(long k) {
+        if (k < 1 || k > prefixSum(N - 1))
+            throw new IllegalArgumentException("k out of range; received: " + k);
+        return lowerBound(k);
+    }
+
     @Override
     public String toString() {
         return java.util.Arrays.toString(tree);
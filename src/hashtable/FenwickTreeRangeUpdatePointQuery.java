@@ -25,14 +25,26 @@ public class FenwickTreeRangeUpdatePointQuery {
         // Make a clone of the values array since we manipulate
         // the array in place destroying all its original content.
         long[] fenwickTree = values.clone();
+        build(fenwickTree);
 
-        for (int i = 1; i < N; i++) {
+        originalTree = fenwickTree;
+        currentTree = fenwickTree.clone();
+    }
+
+    // Turns an array of one based point values into a Fenwick tree in place, O(n)
+    private static void build(long[] tree) {
+        for (int i = 1; i < tree.length; i++) {
             int parent = i + lsb(i);
-            if (parent < N) fenwickTree[parent] += fenwickTree[i];
+            if (parent < tree.length) tree[parent] += tree[i];
         }
+    }
 
-        originalTree = fenwickTree;
-        currentTree = fenwickTree.clone();
+    // The inverse of build, turns a Fenwick tree back into its point values in place, O(n)
+    private static void unbuild(long[] tree) {
+        for (int i = tree.length - 1; i >= 1; i--) {
+            int parent = i + lsb(i);
+            if (parent < tree.length) tree[parent] -= tree[i];
+        }
     }
 
     // Update the interval [left, right] with the value 'val', O(log(n))
@@ -41,6 +53,35 @@ public class FenwickTreeRangeUpdatePointQuery {
         add(right + 1, -val);
     }
 
+    // Update every interval [lefts[j], rights[j]] with the value vals[j]. Small
+    // batches are applied one at a time in O(klog(n)). Once that would cost more
+    // than rebuilding, the current tree is turned back into its difference
+    // array, the updates are applied and the tree is reconstructed, O(n + k).
+    public void updateRangeAll(int[] lefts, int[] rights, long[] vals) {
+        if (lefts == null || rights == null || vals == null
+                || lefts.length != rights.length || lefts.length != vals.length)
+            throw new IllegalArgumentException("lefts, rights and vals must be non null and of equal length");
+
+        // Validate the whole batch first so both paths reject the same input
+        // before anything is changed
+        final int k = lefts.length;
+        for (int j = 0; j < k; j++)
+            if (lefts[j] < 1 || rights[j] < lefts[j] || rights[j] >= N)
+                throw new IndexOutOfBoundsException("Range out of bounds; received: [" + lefts[j] + ", " + rights[j] + "]");
+
+        if ((long) 2 * k * (32 - Integer.numberOfLeadingZeros(N)) < N) {
+            for (int j = 0; j < k; j++) updateRange(lefts[j], rights[j], vals[j]);
+            return;
+        }
+
+        unbuild(currentTree);
+        for (int j = 0; j < k; j++) {
+            currentTree[lefts[j]] += vals[j];
+            if (rights[j] + 1 < N) currentTree[rights[j] + 1] -= vals[j];
+        }
+        build(currentTree);
+    }
+
     // Add 'v' to index 'i' and all the ranges responsible for 'i', O(log(n))
     private void add(int i, long v) {
         while (i < N) {
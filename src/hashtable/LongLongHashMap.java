@@ -0,0 +1,165 @@
+package hashtable;
+
+import java.util.Arrays;
+
+// A primitive long -> long hash map using open addressing with linear probing.
+// Keys and values live in two flat long arrays so lookups never box and never
+// allocate. The capacity is always a power of two and removals use backward
+// shift deletion, so no tombstones are needed.
+public class LongLongHashMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double LOAD_FACTOR = 0.5;
+
+    // Marks an empty slot. The key 0 itself is stored separately.
+    private static final long FREE_KEY = 0L;
+
+    private long[] keys;
+    private long[] values;
+
+    // 'mask' is capacity - 1, 'threshold' is the size at which we resize
+    private int mask, threshold, size;
+
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Illegal capacity: " + expectedSize);
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    // Spread the bits of the key so that sequential keys do not cluster
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == FREE_KEY) return hasZeroKey;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (keys[i] == FREE_KEY) return false;
+            if (keys[i] == key) return true;
+        }
+    }
+
+    // Returns the value of 'key' or 'defaultValue' if the key is absent
+    public long get(long key, long defaultValue) {
+        if (key == FREE_KEY) return hasZeroKey ? zeroValue : defaultValue;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (keys[i] == FREE_KEY) return defaultValue;
+            if (keys[i] == key) return values[i];
+        }
+    }
+
+    // Associates 'value' with 'key' and returns the previous value or
+    // 'defaultValue' if the key was absent.
+    public long put(long key, long value, long defaultValue) {
+        if (key == FREE_KEY) {
+            long old = hasZeroKey ? zeroValue : defaultValue;
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return old;
+        }
+        int i = slot(key);
+        for (; keys[i] != FREE_KEY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                long old = values[i];
+                values[i] = value;
+                return old;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) resize();
+        return defaultValue;
+    }
+
+    // Adds 'delta' to the value of 'key' (absent keys count as 0) and
+    // returns the new value.
+    public long addTo(long key, long delta) {
+        if (key == FREE_KEY) {
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            return zeroValue += delta;
+        }
+        int i = slot(key);
+        for (; keys[i] != FREE_KEY; i = (i + 1) & mask)
+            if (keys[i] == key) return values[i] += delta;
+        keys[i] = key;
+        values[i] = delta;
+        if (++size > threshold) resize();
+        return delta;
+    }
+
+    // Removes 'key' and returns its value or 'defaultValue' if it was absent
+    public long remove(long key, long defaultValue) {
+        if (key == FREE_KEY) {
+            if (!hasZeroKey) return defaultValue;
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int i = slot(key);
+        for (; keys[i] != key; i = (i + 1) & mask)
+            if (keys[i] == FREE_KEY) return defaultValue;
+
+        long old = values[i];
+        size--;
+
+        // Backward shift deletion: move later entries of the probe run into
+        // the hole as long as that does not put them before their home slot.
+        for (int j = (i + 1) & mask; keys[j] != FREE_KEY; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = FREE_KEY;
+        values[i] = 0L;
+        return old;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        Arrays.fill(values, 0L);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    // Doubles the capacity and reinserts every entry
+    private void resize() {
+        long[] oldKeys = keys, oldValues = values;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == FREE_KEY) continue;
+            int j = slot(key);
+            while (keys[j] != FREE_KEY) j = (j + 1) & mask;
+            keys[j] = key;
+            values[j] = oldValues[i];
+        }
+    }
+}
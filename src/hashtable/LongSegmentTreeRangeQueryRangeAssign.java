@@ -0,0 +1,192 @@
+package hashtable;
+
+// A primitive 'long' specialisation of SegmentTreeRangeQueryRangeAssign for the
+// common range min, range max and range sum queries. Avoids boxing every node
+// and the virtual monoid calls of the generic version.
+//
+// Just like the Fenwick trees the tree is ONE BASED, meaning valid indices
+// are in the range [1, n].
+public class LongSegmentTreeRangeQueryRangeAssign {
+
+    public enum Operation {
+        MIN, MAX, SUM
+    }
+
+    // The number of usable indices plus one (index 0 is not used)
+    final int N;
+
+    // The number of leaves (a power of two >= n) and log2(size)
+    private final int size, log;
+
+    private final Operation op;
+
+    // The identity value of 'op'
+    private final long identity;
+
+    // The tree is stored in heap order: node k has children 2k and 2k+1,
+    // the root is node 1 and the leaves live in [size, 2*size).
+    private final long[] tree;
+
+    // Pending assignment for each internal node, only valid if 'pending' is set
+    private final long[] lazy;
+    private final boolean[] pending;
+
+    // Create a tree with 'sz' elements all set to the identity of 'op'.
+    public LongSegmentTreeRangeQueryRangeAssign(int sz, Operation op) {
+        if (sz < 0) throw new IllegalArgumentException("Size < 0 is not allowed");
+        if (op == null) throw new IllegalArgumentException("Operation cannot be null!");
+
+        this.op = op;
+        identity = op == Operation.MIN ? Long.MAX_VALUE : op == Operation.MAX ? Long.MIN_VALUE : 0L;
+        N = sz + 1;
+        log = 32 - Integer.numberOfLeadingZeros(Math.max(1, sz) - 1);
+        size = 1 << log;
+        tree = new long[2 * size];
+        lazy = new long[size];
+        pending = new boolean[size];
+        if (identity != 0L) java.util.Arrays.fill(tree, identity);
+    }
+
+    // Construct a segment tree with an initial set of values.
+    // The 'values' array MUST BE ONE BASED meaning values[0]
+    // does not get used, O(n) construction.
+    public LongSegmentTreeRangeQueryRangeAssign(long[] values, Operation op) {
+        this(lengthOf(values) - 1, op);
+        System.arraycopy(values, 1, tree, size, N - 1);
+        build();
+    }
+
+    private static int lengthOf(long[] values) {
+        if (values == null || values.length == 0)
+            throw new IllegalArgumentException("Values array cannot be null or empty!");
+        return values.length;
+    }
+
+    private long combine(long a, long b) {
+        switch (op) {
+            case MIN: return Math.min(a, b);
+            case MAX: return Math.max(a, b);
+            default: return a + b;
+        }
+    }
+
+    // The value of a node covering 'count' leaves which were all assigned 'value'
+    private long power(long value, int count) {
+        return op == Operation.SUM ? value * count : value;
+    }
+
+    // Returns the min/max/sum of the interval [left, right], O(log(n))
+    public long query(int left, int right) {
+        rangeInBoundsOrThrow(left, right);
+
+        int l = left - 1 + size, r = right + size;
+        pushPath(l, r);
+
+        long result = identity;
+        while (l < r) {
+            if ((l & 1) == 1) result = combine(result, tree[l++]);
+            if ((r & 1) == 1) result = combine(result, tree[--r]);
+            l >>= 1;
+            r >>= 1;
+        }
+        return result;
+    }
+
+    // Returns the min/max/sum of all the values in the tree, O(1)
+    public long queryAll() {
+        return tree[1];
+    }
+
+    // Get the value at index i, O(log(n))
+    public long get(int i) {
+        return query(i, i);
+    }
+
+    // Set every index in the interval [left, right] to 'value', O(log(n))
+    public void assign(int left, int right, long value) {
+        rangeInBoundsOrThrow(left, right);
+
+        int l = left - 1 + size, r = right + size;
+        pushPath(l, r);
+
+        for (int a = l, b = r; a < b; a >>= 1, b >>= 1) {
+            if ((a & 1) == 1) apply(a++, value);
+            if ((b & 1) == 1) apply(--b, value);
+        }
+
+        for (int i = 1; i <= log; i++) {
+            if (((l >> i) << i) != l) pull(l >> i);
+            if (((r >> i) << i) != r) pull((r - 1) >> i);
+        }
+    }
+
+    // Set index i to be equal to 'value', O(log(n))
+    public void set(int i, long value) {
+        assign(i, i, value);
+    }
+
+    // Set values[j] at index indices[j] for every j. Small batches are applied
+    // one at a time in O(k*log(n)), large batches push every pending assignment
+    // down and rebuild the whole tree bottom up in O(n + k).
+    public void setAll(int[] indices, long[] values) {
+        if (indices == null || values == null || indices.length != values.length)
+            throw new IllegalArgumentException("indices and values must be non null and of equal length");
+
+        // Validate the whole batch first so a bad entry leaves the tree untouched
+        final int k = indices.length;
+        for (int j = 0; j < k; j++) rangeInBoundsOrThrow(indices[j], indices[j]);
+
+        if ((long) k * log <= size) {
+            for (int j = 0; j < k; j++) set(indices[j], values[j]);
+            return;
+        }
+
+        for (int node = 1; node < size; node++) push(node);
+        for (int j = 0; j < k; j++) tree[size + indices[j] - 1] = values[j];
+        build();
+    }
+
+    // Recompute every internal node from its children, O(n)
+    private void build() {
+        for (int node = size - 1; node >= 1; node--) pull(node);
+    }
+
+    // Push pending assignments down on the paths to the boundaries of [l, r)
+    private void pushPath(int l, int r) {
+        for (int i = log; i >= 1; i--) {
+            if (((l >> i) << i) != l) push(l >> i);
+            if (((r >> i) << i) != r) push((r - 1) >> i);
+        }
+    }
+
+    // Assign 'value' to every leaf below 'node'
+    private void apply(int node, long value) {
+        tree[node] = power(value, size >> (31 - Integer.numberOfLeadingZeros(node)));
+        if (node < size) {
+            lazy[node] = value;
+            pending[node] = true;
+        }
+    }
+
+    private void push(int node) {
+        if (!pending[node]) return;
+        apply(2 * node, lazy[node]);
+        apply(2 * node + 1, lazy[node]);
+        pending[node] = false;
+    }
+
+    private void pull(int node) {
+        tree[node] = combine(tree[2 * node], tree[2 * node + 1]);
+    }
+
+    private void rangeInBoundsOrThrow(int left, int right) {
+        if (right < left) throw new IllegalArgumentException("Make sure right >= left");
+        if (left < 1 || right >= N)
+            throw new IndexOutOfBoundsException("Range out of bounds; received: [" + left + ", " + right + "]");
+    }
+
+    @Override
+    public String toString() {
+        return java.util.Arrays.toString(tree);
+    }
+}
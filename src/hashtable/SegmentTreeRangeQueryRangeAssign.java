@@ -0,0 +1,207 @@
+package hashtable;
+
+// An iterative, array backed segment tree with lazy propagation which supports
+// range assignment and range queries over any associative monoid (min, max,
+// sum, gcd, matrix product, ...). Unlike the Fenwick trees the operation does
+// not need to be invertible.
+//
+// Just like the Fenwick trees the tree is ONE BASED, meaning valid indices
+// are in the range [1, n].
+@SuppressWarnings("unchecked")
+public class SegmentTreeRangeQueryRangeAssign<T> {
+
+    // An associative operation together with its identity element.
+    public interface Monoid<T> {
+
+        T identity();
+
+        T combine(T a, T b);
+
+        // Returns 'value' combined with itself 'count' times (count >= 1). This is
+        // what allows an assignment to be applied to a whole node in one step, so
+        // override it when there is a closed form (x for min/max, x*count for sum).
+        default T power(T value, int count) {
+            T result = value;
+            T base = value;
+            count--;
+            while (count > 0) {
+                if ((count & 1) == 1) result = combine(result, base);
+                base = combine(base, base);
+                count >>= 1;
+            }
+            return result;
+        }
+    }
+
+    // The number of usable indices plus one (index 0 is not used)
+    final int N;
+
+    // The number of leaves (a power of two >= n) and log2(size)
+    private final int size, log;
+
+    private final Monoid<T> monoid;
+
+    // The tree is stored in heap order: node k has children 2k and 2k+1,
+    // the root is node 1 and the leaves live in [size, 2*size).
+    private final Object[] tree;
+
+    // Pending assignment for each internal node, null if there is none
+    private final Object[] lazy;
+
+    // Create a tree with 'sz' elements all set to the identity of the monoid.
+    public SegmentTreeRangeQueryRangeAssign(int sz, Monoid<T> monoid) {
+        if (sz < 0) throw new IllegalArgumentException("Size < 0 is not allowed");
+        if (monoid == null) throw new IllegalArgumentException("Monoid cannot be null!");
+
+        this.monoid = monoid;
+        N = sz + 1;
+        log = ceilLog2(Math.max(1, sz));
+        size = 1 << log;
+        tree = new Object[2 * size];
+        lazy = new Object[size];
+        java.util.Arrays.fill(tree, monoid.identity());
+    }
+
+    // Construct a segment tree with an initial set of values.
+    // The 'values' array MUST BE ONE BASED meaning values[0]
+    // does not get used, O(n) construction.
+    public SegmentTreeRangeQueryRangeAssign(T[] values, Monoid<T> monoid) {
+        this(lengthOf(values) - 1, monoid);
+        for (int i = 1; i < N; i++) {
+            valueNotNullOrThrow(values[i]);
+            tree[size + i - 1] = values[i];
+        }
+        build();
+    }
+
+    private static int lengthOf(Object[] values) {
+        if (values == null || values.length == 0)
+            throw new IllegalArgumentException("Values array cannot be null or empty!");
+        return values.length;
+    }
+
+    private static int ceilLog2(int n) {
+        return 32 - Integer.numberOfLeadingZeros(n - 1);
+    }
+
+    // Returns the combination of the values in the interval [left, right], O(log(n))
+    public T query(int left, int right) {
+        rangeInBoundsOrThrow(left, right);
+
+        int l = left - 1 + size, r = right + size;
+        pushPath(l, r);
+
+        T sumLeft = monoid.identity(), sumRight = monoid.identity();
+        while (l < r) {
+            if ((l & 1) == 1) sumLeft = monoid.combine(sumLeft, (T) tree[l++]);
+            if ((r & 1) == 1) sumRight = monoid.combine((T) tree[--r], sumRight);
+            l >>= 1;
+            r >>= 1;
+        }
+        return monoid.combine(sumLeft, sumRight);
+    }
+
+    // Returns the combination of all the values in the tree, O(1)
+    public T queryAll() {
+        return (T) tree[1];
+    }
+
+    // Get the value at index i, O(log(n))
+    public T get(int i) {
+        return query(i, i);
+    }
+
+    // Set every index in the interval [left, right] to 'value', O(log(n))
+    public void assign(int left, int right, T value) {
+        rangeInBoundsOrThrow(left, right);
+        valueNotNullOrThrow(value);
+
+        int l = left - 1 + size, r = right + size;
+        pushPath(l, r);
+
+        for (int a = l, b = r; a < b; a >>= 1, b >>= 1) {
+            if ((a & 1) == 1) apply(a++, value);
+            if ((b & 1) == 1) apply(--b, value);
+        }
+
+        for (int i = 1; i <= log; i++) {
+            if (((l >> i) << i) != l) pull(l >> i);
+            if (((r >> i) << i) != r) pull((r - 1) >> i);
+        }
+    }
+
+    // Set index i to be equal to 'value', O(log(n))
+    public void set(int i, T value) {
+        assign(i, i, value);
+    }
+
+    // Set values[j] at index indices[j] for every j. Small batches are applied
+    // one at a time in O(k*log(n)), large batches push every pending assignment
+    // down and rebuild the whole tree bottom up in O(n + k).
+    public void setAll(int[] indices, T[] values) {
+        if (indices == null || values == null || indices.length != values.length)
+            throw new IllegalArgumentException("indices and values must be non null and of equal length");
+
+        // Validate the whole batch first so a bad entry leaves the tree untouched
+        final int k = indices.length;
+        for (int j = 0; j < k; j++) {
+            rangeInBoundsOrThrow(indices[j], indices[j]);
+            valueNotNullOrThrow(values[j]);
+        }
+
+        if ((long) k * log <= size) {
+            for (int j = 0; j < k; j++) set(indices[j], values[j]);
+            return;
+        }
+
+        for (int node = 1; node < size; node++) push(node);
+        for (int j = 0; j < k; j++) tree[size + indices[j] - 1] = values[j];
+        build();
+    }
+
+    // Recompute every internal node from its children, O(n)
+    private void build() {
+        for (int node = size - 1; node >= 1; node--) pull(node);
+    }
+
+    // Push pending assignments down on the paths to the boundaries of [l, r)
+    private void pushPath(int l, int r) {
+        for (int i = log; i >= 1; i--) {
+            if (((l >> i) << i) != l) push(l >> i);
+            if (((r >> i) << i) != r) push((r - 1) >> i);
+        }
+    }
+
+    // Assign 'value' to every leaf below 'node'
+    private void apply(int node, T value) {
+        tree[node] = monoid.power(value, size >> (31 - Integer.numberOfLeadingZeros(node)));
+        if (node < size) lazy[node] = value;
+    }
+
+    private void push(int node) {
+        Object value = lazy[node];
+        if (value == null) return;
+        apply(2 * node, (T) value);
+        apply(2 * node + 1, (T) value);
+        lazy[node] = null;
+    }
+
+    private void pull(int node) {
+        tree[node] = monoid.combine((T) tree[2 * node], (T) tree[2 * node + 1]);
+    }
+
+    private void rangeInBoundsOrThrow(int left, int right) {
+        if (right < left) throw new IllegalArgumentException("Make sure right >= left");
+        if (left < 1 || right >= N)
+            throw new IndexOutOfBoundsException("Range out of bounds; received: [" + left + ", " + right + "]");
+    }
+
+    private void valueNotNullOrThrow(Object value) {
+        if (value == null) throw new IllegalArgumentException("value cannot be null");
+    }
+
+    @Override
+    public String toString() {
+        return java.util.Arrays.toString(tree);
+    }
+}
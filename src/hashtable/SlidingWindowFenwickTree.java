@@ -0,0 +1,139 @@
+package hashtable;
+
+// Rolling window counters, for example "requests per endpoint in the last 5
+// minutes". Time is cut into 'slices' slices of 'sliceWidth' time units each
+// and the window is made of the newest 'slices' slices.
+//
+// A single Fenwick tree holds the sum of every live slice, so sum(left, right)
+// over the window is a plain O(log(n)) query. Each slice also keeps a log of
+// the net delta it added to every index it touched, in a ring of reusable
+// primitive arrays. Repeated updates of the same index within a slice are
+// coalesced into one log entry through a LongLongHashMap, so a slice logs at
+// most n entries and the logs take O(min(updates, n * slices)) memory. When a
+// slice falls out of the window its entries are replayed negated against the
+// tree and the arrays are reused for the next slice.
+//
+// The indices are ONE BASED just like FenwickTreeRangeQueryPointUpdate.
+public class SlidingWindowFenwickTree {
+
+    // The size of the array holding the Fenwick tree values
+    final int N;
+
+    // The number of time units per slice and the number of slices in the window
+    private final long sliceWidth;
+    private final int slices;
+
+    // Sums of all the updates of the live slices
+    private final FenwickTreeRangeQueryPointUpdate tree;
+
+    // Update logs of the live slices, slice s lives in ring position s mod slices.
+    // logPositions[pos] maps an index to its entry in the log of that slice.
+    private final int[][] logIndices;
+    private final long[][] logDeltas;
+    private final int[] logSizes;
+    private final LongLongHashMap[] logPositions;
+
+    // The absolute number of the newest slice, NO_SLICE before the first update
+    private static final long NO_SLICE = Long.MIN_VALUE;
+    private long newestSlice = NO_SLICE;
+
+    // Create an empty windowed counter over indices [1, sz] covering the last
+    // slices * sliceWidth time units.
+    public SlidingWindowFenwickTree(int sz, int slices, long sliceWidth) {
+        if (sz <= 0) throw new IllegalArgumentException("Size <= 0 is not allowed");
+        if (slices <= 0) throw new IllegalArgumentException("slices <= 0 is not allowed");
+        if (sliceWidth <= 0) throw new IllegalArgumentException("sliceWidth <= 0 is not allowed");
+
+        tree = new FenwickTreeRangeQueryPointUpdate(sz);
+        N = sz + 1;
+        this.slices = slices;
+        this.sliceWidth = sliceWidth;
+
+        logIndices = new int[slices][4];
+        logDeltas = new long[slices][4];
+        logSizes = new int[slices];
+        logPositions = new LongLongHashMap[slices];
+        for (int pos = 0; pos < slices; pos++) logPositions[pos] = new LongLongHashMap();
+    }
+
+    // Add 'v' to index 'i' at time 'time', O(log(n)). Moves the window forward
+    // if 'time' is newer than anything seen so far. Updates which are already
+    // older than the window are ignored and false is returned.
+    public boolean add(long time, int i, long v) {
+        if (i < 1 || i >= N) throw new IndexOutOfBoundsException("Index out of bounds; received: " + i);
+
+        advance(time);
+        long slice = Math.floorDiv(time, sliceWidth);
+        if (slice <= newestSlice - slices) return false;
+
+        int pos = (int) Math.floorMod(slice, (long) slices);
+        int entry = (int) logPositions[pos].get(i, -1);
+        if (entry != -1) {
+            logDeltas[pos][entry] += v;
+        } else {
+            int sz = logSizes[pos];
+            if (sz == logIndices[pos].length) {
+                logIndices[pos] = java.util.Arrays.copyOf(logIndices[pos], 2 * sz);
+                logDeltas[pos] = java.util.Arrays.copyOf(logDeltas[pos], 2 * sz);
+            }
+            logIndices[pos][sz] = i;
+            logDeltas[pos][sz] = v;
+            logSizes[pos] = sz + 1;
+            logPositions[pos].put(i, sz, -1);
+        }
+
+        tree.add(i, v);
+        return true;
+    }
+
+    // Moves the window so that it ends at 'time', expiring every slice which
+    // falls out of it. Time never moves backwards. Each expired slice costs one
+    // O(log(n)) tree update per distinct index it touched, so expiry adds at
+    // most O(log(n)) amortized to every update.
+    public void advance(long time) {
+        long slice = Math.floorDiv(time, sliceWidth);
+        if (newestSlice == NO_SLICE) {
+            newestSlice = slice;
+            return;
+        }
+        if (slice <= newestSlice) return;
+
+        // Only the slices which were live can hold data, so at most 'slices' of them
+        long from = Math.max(newestSlice + 1, slice - slices + 1) - slices;
+        for (long s = from; s <= slice - slices; s++) expire((int) Math.floorMod(s, (long) slices));
+        newestSlice = slice;
+    }
+
+    // Undo every update of the slice at ring position 'pos' and clear its log
+    private void expire(int pos) {
+        int[] indices = logIndices[pos];
+        long[] deltas = logDeltas[pos];
+        LongLongHashMap positions = logPositions[pos];
+        for (int j = logSizes[pos] - 1; j >= 0; j--) {
+            if (deltas[j] != 0) tree.add(indices[j], -deltas[j]);
+            positions.remove(indices[j], -1);
+        }
+        logSizes[pos] = 0;
+    }
+
+    // Returns the sum of the interval [left, right] over the live window, O(log(n))
+    public long sum(int left, int right) {
+        return tree.sum(left, right);
+    }
+
+    // Moves the window to 'time' and returns the sum of [left, right], O(log(n))
+    public long sum(long time, int left, int right) {
+        advance(time);
+        return tree.sum(left, right);
+    }
+
+    // Get the value at index i over the live window
+    public long get(int i) {
+        return tree.get(i);
+    }
+
+    @Override
+    public String toString() {
+        return tree.toString();
+    }
+}
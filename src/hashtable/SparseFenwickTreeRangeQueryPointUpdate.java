@@ -0,0 +1,78 @@
+package hashtable;
+
+// A Fenwick tree over a huge index range [1, maxIndex] (for example 64 bit
+// timestamps or user ids). Only the tree cells which were actually touched are
+// stored, in a primitive hash map, so memory is proportional to the number of
+// updates times log(maxIndex) instead of to maxIndex.
+public class SparseFenwickTreeRangeQueryPointUpdate {
+
+    // The largest usable index
+    final long N;
+
+    // Maps a tree index to the range value stored in that cell. Absent cells are 0.
+    private final LongLongHashMap tree;
+
+    // Create an empty sparse Fenwick tree with indices in [1, maxIndex].
+    public SparseFenwickTreeRangeQueryPointUpdate(long maxIndex) {
+        this(maxIndex, 16);
+    }
+
+    // Same as above, presizing the map for roughly 'expectedCells' touched cells.
+    public SparseFenwickTreeRangeQueryPointUpdate(long maxIndex, int expectedCells) {
+        if (maxIndex <= 0) throw new IllegalArgumentException("maxIndex <= 0 is not allowed");
+        N = maxIndex;
+        tree = new LongLongHashMap(expectedCells);
+    }
+
+    // Returns the value of the least significant bit (LSB)
+    private static long lsb(long i) {
+        return i & -i;
+    }
+
+    // Computes the prefix sum from [1, i], O(log(maxIndex))
+    private long prefixSum(long i) {
+        long sum = 0L;
+        while (i != 0) {
+            sum += tree.get(i, 0L);
+            i &= ~lsb(i); // Equivalently, i -= lsb(i);
+        }
+        return sum;
+    }
+
+    // Returns the sum of the interval [left, right], O(log(maxIndex))
+    public long sum(long left, long right) {
+        if (right < left) throw new IllegalArgumentException("Make sure right >= left");
+        indexInBoundsOrThrow(left);
+        indexInBoundsOrThrow(right);
+        return prefixSum(right) - prefixSum(left - 1);
+    }
+
+    // Get the value at index i
+    public long get(long i) {
+        return sum(i, i);
+    }
+
+    // Add 'v' to index 'i', O(log(maxIndex))
+    public void add(long i, long v) {
+        indexInBoundsOrThrow(i);
+        // The 'i > 0' check guards against overflow when maxIndex is close to Long.MAX_VALUE
+        while (i > 0 && i <= N) {
+            tree.addTo(i, v);
+            i += lsb(i);
+        }
+    }
+
+    // Set index i to be equal to v, O(log(maxIndex))
+    public void set(long i, long v) {
+        add(i, v - sum(i, i));
+    }
+
+    // Returns the number of tree cells currently stored
+    public int cells() {
+        return tree.size();
+    }
+
+    private void indexInBoundsOrThrow(long i) {
+        if (i < 1 || i > N) throw new IndexOutOfBoundsException("Index out of bounds; received: " + i);
+    }
+}